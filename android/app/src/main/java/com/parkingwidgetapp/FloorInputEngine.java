@@ -0,0 +1,161 @@
+package com.parkingwidgetapp;
+
+/**
+ * Keeps floor and area input valid while it is typed, shared by the input dialog and
+ * React Native so both enforce the same rules.
+ *
+ * The floor is scanned once as a small state machine (whole digits, decimal point,
+ * one decimal digit, "층" suffix). Characters that break the rules are removed and the
+ * suffix is kept at the end through replace() calls on the text itself, so an Android
+ * Editable keeps its cursor and spans instead of being set again.
+ *
+ * Pure Java so it can be unit tested without Android.
+ */
+public final class FloorInputEngine {
+
+    // Result flags
+    public static final int UNCHANGED = 0;
+    public static final int CHANGED = 1;
+    // A digit was dropped because the floor would have been 100 or above
+    public static final int OUT_OF_RANGE = 2;
+    // The area was cut at ParkingLocationFormat.MAX_AREA_LENGTH
+    public static final int TRUNCATED = 4;
+
+    private static final int MAX_WHOLE_DIGITS = 2;
+    private static final char SUFFIX = '층';
+
+    /**
+     * Text edited in place, e.g. an Editable or a StringBuilder.
+     */
+    public interface Text {
+        int length();
+
+        char charAt(int index);
+
+        void replace(int start, int end, CharSequence replacement);
+    }
+
+    private FloorInputEngine() {
+    }
+
+    // Formats floor input such as "2", "12.5" or "0.5", with the "층" suffix if withSuffix is set
+    public static int formatFloor(Text text, boolean withSuffix) {
+        int flags = UNCHANGED;
+        int wholeDigits = 0;
+        boolean decimalPoint = false;
+        int fractionDigits = 0;
+        boolean hasSuffix = false;
+
+        // Everything before i has been accepted
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            boolean keep = false;
+
+            if (c >= '0' && c <= '9') {
+                if (!decimalPoint) {
+                    if (wholeDigits == 1 && text.charAt(i - 1) == '0') {
+                        // "02" is floor 2, drop the leading zero
+                        text.replace(i - 1, i, "");
+                        i--;
+                        flags |= CHANGED;
+                        keep = true;
+                    } else if (wholeDigits < MAX_WHOLE_DIGITS) {
+                        wholeDigits++;
+                        keep = true;
+                    } else {
+                        flags |= OUT_OF_RANGE;
+                    }
+                } else if (fractionDigits == 0) {
+                    // Two whole digits and one decimal stay below 100
+                    fractionDigits++;
+                    keep = true;
+                }
+            } else if (c == '.' && !decimalPoint) {
+                if (wholeDigits == 0) {
+                    // ".5" is 0.5층
+                    text.replace(i, i, "0");
+                    i++;
+                    wholeDigits = 1;
+                    flags |= CHANGED;
+                }
+                decimalPoint = true;
+                keep = true;
+            } else if (c == SUFFIX && i == text.length() - 1 && withSuffix) {
+                hasSuffix = true;
+                keep = true;
+            }
+
+            if (keep) {
+                i++;
+            } else {
+                text.replace(i, i + 1, "");
+                flags |= CHANGED;
+            }
+        }
+
+        if (wholeDigits > 0 && withSuffix && !hasSuffix) {
+            text.replace(text.length(), text.length(), String.valueOf(SUFFIX));
+            flags |= CHANGED;
+        } else if (wholeDigits == 0 && hasSuffix) {
+            // Only the suffix is left, e.g. after deleting the last digit
+            text.replace(text.length() - 1, text.length(), "");
+            flags |= CHANGED;
+        }
+        return flags;
+    }
+
+    // Cuts the area at ParkingLocationFormat.MAX_AREA_LENGTH without splitting a surrogate pair
+    public static int limitArea(Text text) {
+        int length = text.length();
+        if (length <= ParkingLocationFormat.MAX_AREA_LENGTH) {
+            return UNCHANGED;
+        }
+        int end = ParkingLocationFormat.MAX_AREA_LENGTH;
+        if (Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        text.replace(end, length, "");
+        return CHANGED | TRUNCATED;
+    }
+
+    public static String formatFloor(String input, boolean withSuffix) {
+        StringText text = new StringText(input);
+        formatFloor(text, withSuffix);
+        return text.toString();
+    }
+
+    public static String limitArea(String input) {
+        StringText text = new StringText(input);
+        limitArea(text);
+        return text.toString();
+    }
+
+    private static final class StringText implements Text {
+        private final StringBuilder builder;
+
+        StringText(String input) {
+            builder = new StringBuilder(input != null ? input : "");
+        }
+
+        @Override
+        public int length() {
+            return builder.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return builder.charAt(index);
+        }
+
+        @Override
+        public void replace(int start, int end, CharSequence replacement) {
+            builder.replace(start, end, replacement.toString());
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
+}
@@ -13,7 +13,11 @@ import com.facebook.react.defaults.DefaultReactNativeHost
 
 class MainApplication : Application(), ReactApplication {
 
-  override val reactNativeHost: ReactNativeHost =
+  // Widget broadcasts, alarms and the input dialog run on plain Android APIs, so React Native
+  // is only loaded once an activity or bridge call asks for the host
+  @Volatile private var reactNativeLoaded = false
+
+  override val reactNativeHost: ReactNativeHost by lazy {
       object : DefaultReactNativeHost(this) {
         override fun getPackages(): List<ReactPackage> =
             PackageList(this).packages.apply {
@@ -29,12 +33,32 @@ class MainApplication : Application(), ReactApplication {
         override val isNewArchEnabled: Boolean = BuildConfig.IS_NEW_ARCHITECTURE_ENABLED
         override val isHermesEnabled: Boolean = BuildConfig.IS_HERMES_ENABLED
       }
+  }
 
   override val reactHost: ReactHost
-    get() = getDefaultReactHost(applicationContext, reactNativeHost)
+    get() {
+      ensureReactNativeLoaded()
+      return getDefaultReactHost(applicationContext, reactNativeHost)
+    }
 
   override fun onCreate() {
     super.onCreate()
-    loadReactNative(this)
+    // Widgets follow committed parking data changes from any surface
+    WidgetDataObserver.register(this)
+    // Served synchronously to JS by getSnapshot()
+    ParkingStorageWriter.warmUp(this)
+  }
+
+  /** Loads the React Native native libraries and entry point, once per process. */
+  fun ensureReactNativeLoaded() {
+    if (reactNativeLoaded) {
+      return
+    }
+    synchronized(this) {
+      if (!reactNativeLoaded) {
+        loadReactNative(this)
+        reactNativeLoaded = true
+      }
+    }
   }
 }
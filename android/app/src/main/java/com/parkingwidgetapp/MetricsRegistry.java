@@ -0,0 +1,236 @@
+package com.parkingwidgetapp;
+
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters and latency histograms for the widget hot paths.
+ * Recording is lock-free and allocation-free; snapshots are read through
+ * the React Native module and `dumpsys activity provider` (see ParkingDataProvider).
+ * Pure Java so it can be unit tested without Android.
+ */
+public final class MetricsRegistry {
+
+    // Upper bounds in microseconds, for work done inside the process
+    private static final long[] LATENCY_BOUNDS_US = {
+        100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 1_000_000
+    };
+    // Upper bounds in milliseconds, for how late an alarm fired
+    private static final long[] LATENESS_BOUNDS_MS = {
+        10, 100, 1_000, 5_000, 30_000, 60_000, 5 * 60_000, 15 * 60_000, 60 * 60_000
+    };
+
+    public static final Counter STORAGE_READS = new Counter("storage.reads");
+    public static final Counter STORAGE_READ_FALLBACKS = new Counter("storage.read_fallbacks");
+    public static final Counter STORAGE_SAVES = new Counter("storage.saves");
+    public static final Counter STORAGE_DELETES = new Counter("storage.deletes");
+    public static final Counter STORAGE_WRITE_FAILURES = new Counter("storage.write_failures");
+    public static final Counter STORAGE_WRITE_CONFLICTS = new Counter("storage.write_conflicts");
+    public static final Counter SNAPSHOT_HITS = new Counter("snapshot.hits");
+    public static final Counter SNAPSHOT_WRITE_FAILURES = new Counter("snapshot.write_failures");
+    public static final Counter WIDGET_RENDERS = new Counter("widget.renders");
+    public static final Counter WIDGET_FULL_UPDATES = new Counter("widget.full_updates");
+    public static final Counter WIDGET_PARTIAL_UPDATES = new Counter("widget.partial_updates");
+    public static final Counter WIDGET_UNCHANGED = new Counter("widget.unchanged");
+    public static final Counter ALARM_FIRES = new Counter("alarm.fires");
+    public static final Counter BROADCAST_OVERRUNS = new Counter("broadcast.budget_overruns");
+
+    public static final Histogram STORAGE_READ_US = new Histogram("storage.read_us", LATENCY_BOUNDS_US);
+    public static final Histogram STORAGE_WRITE_US = new Histogram("storage.write_us", LATENCY_BOUNDS_US);
+    public static final Histogram WIDGET_RENDER_US = new Histogram("widget.render_us", LATENCY_BOUNDS_US);
+    public static final Histogram ALARM_LATENESS_MS = new Histogram("alarm.lateness_ms", LATENESS_BOUNDS_MS);
+    public static final Histogram BROADCAST_US = new Histogram("broadcast.work_us", LATENCY_BOUNDS_US);
+
+    private static final Counter[] COUNTERS = {
+        STORAGE_READS,
+        STORAGE_READ_FALLBACKS,
+        STORAGE_SAVES,
+        STORAGE_DELETES,
+        STORAGE_WRITE_FAILURES,
+        STORAGE_WRITE_CONFLICTS,
+        SNAPSHOT_HITS,
+        SNAPSHOT_WRITE_FAILURES,
+        WIDGET_RENDERS,
+        WIDGET_FULL_UPDATES,
+        WIDGET_PARTIAL_UPDATES,
+        WIDGET_UNCHANGED,
+        ALARM_FIRES,
+        BROADCAST_OVERRUNS,
+    };
+    private static final Histogram[] HISTOGRAMS = {
+        STORAGE_READ_US,
+        STORAGE_WRITE_US,
+        WIDGET_RENDER_US,
+        ALARM_LATENESS_MS,
+        BROADCAST_US,
+    };
+
+    private MetricsRegistry() {
+    }
+
+    public static Counter[] getCounters() {
+        return COUNTERS.clone();
+    }
+
+    public static Histogram[] getHistograms() {
+        return HISTOGRAMS.clone();
+    }
+
+    // Microseconds elapsed since a System.nanoTime() start
+    public static long elapsedMicros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000;
+    }
+
+    public static void reset() {
+        for (Counter counter : COUNTERS) {
+            counter.reset();
+        }
+        for (Histogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+    }
+
+    public static void dump(PrintWriter writer) {
+        writer.println("Counters:");
+        for (Counter counter : COUNTERS) {
+            writer.println("  " + counter.getName() + " = " + counter.get());
+        }
+        writer.println("Histograms:");
+        for (Histogram histogram : HISTOGRAMS) {
+            Histogram.Snapshot s = histogram.snapshot();
+            writer.println("  " + histogram.getName() + ": count=" + s.count + " mean=" + s.getMean()
+                + " p50=" + s.getPercentile(50) + " p90=" + s.getPercentile(90)
+                + " p99=" + s.getPercentile(99) + " max=" + s.max);
+        }
+        writer.flush();
+    }
+
+    public static final class Counter {
+        private final String name;
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long delta) {
+            value.add(delta);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        void reset() {
+            value.reset();
+        }
+    }
+
+    public static final class Histogram {
+        private final String name;
+        private final long[] upperBounds;
+        // One bucket per bound plus one for everything above the last bound
+        private final AtomicLongArray buckets;
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        Histogram(String name, long[] upperBounds) {
+            this.name = name;
+            this.upperBounds = upperBounds;
+            this.buckets = new AtomicLongArray(upperBounds.length + 1);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            buckets.incrementAndGet(bucketOf(value));
+            sum.add(value);
+
+            long currentMax;
+            while (value > (currentMax = max.get())) {
+                if (max.compareAndSet(currentMax, value)) {
+                    break;
+                }
+            }
+        }
+
+        // Buckets are read one by one, so a snapshot taken during recording may be off by a few samples
+        public Snapshot snapshot() {
+            long[] counts = new long[buckets.length()];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            return new Snapshot(upperBounds, counts, total, sum.sum(), max.get());
+        }
+
+        void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            sum.reset();
+            max.set(0);
+        }
+
+        private int bucketOf(long value) {
+            for (int i = 0; i < upperBounds.length; i++) {
+                if (value <= upperBounds[i]) {
+                    return i;
+                }
+            }
+            return upperBounds.length;
+        }
+
+        public static final class Snapshot {
+            public final long count;
+            public final long sum;
+            public final long max;
+            private final long[] upperBounds;
+            private final long[] counts;
+
+            Snapshot(long[] upperBounds, long[] counts, long count, long sum, long max) {
+                this.upperBounds = upperBounds;
+                this.counts = counts;
+                this.count = count;
+                this.sum = sum;
+                this.max = max;
+            }
+
+            public long getMean() {
+                return count > 0 ? sum / count : 0;
+            }
+
+            // Upper bound of the bucket holding the given percentile, capped at the observed max
+            public long getPercentile(int percentile) {
+                if (count == 0) {
+                    return 0;
+                }
+                long rank = (count * percentile + 99) / 100;
+                long seen = 0;
+                for (int i = 0; i < counts.length; i++) {
+                    seen += counts[i];
+                    if (seen >= rank) {
+                        return i < upperBounds.length ? Math.min(upperBounds[i], max) : max;
+                    }
+                }
+                return max;
+            }
+        }
+    }
+}
@@ -4,76 +4,106 @@ import android.app.AlarmManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
+import android.os.Build;
 import android.util.Log;
-import java.util.Calendar;
 
+/**
+ * Arms a single alarm for the next moment the widget label actually changes,
+ * e.g. "오전 10:30 저장" turning into "어제 오전 10:30" at midnight.
+ * No alarm is armed when no slot has a saved location whose label will still change.
+ */
 public class MidnightScheduler {
     private static final String TAG = "MidnightScheduler";
     private static final int MIDNIGHT_REQUEST_CODE = 1001;
-    
-    public static void scheduleMidnightUpdate(Context context) {
+
+    static final String EXTRA_TRIGGER_TIME = "com.parkingwidgetapp.extra.TRIGGER_TIME";
+
+    // Trigger time of the alarm armed by this process, 0 if none is known
+    private static long armedTriggerTime = 0;
+
+    public static synchronized void scheduleNextUpdate(Context context) {
+        // One alarm serves every slot, arm it for the earliest label change
+        long now = System.currentTimeMillis();
+        long triggerTime = -1;
+        for (int slot = 0; slot < VehicleSlots.MAX_SLOTS; slot++) {
+            ParkingState state = ParkingStateCache.get(context, slot);
+            if (!state.hasLocation() || state.getTimestamp() <= 0) {
+                continue;
+            }
+            long changeAt = RelativeTimeFormatter.getDefault().nextChangeAt(state.getTimestamp(), now);
+            if (changeAt >= 0 && (triggerTime < 0 || changeAt < triggerTime)) {
+                triggerTime = changeAt;
+            }
+        }
+
+        if (triggerTime < 0) {
+            cancelMidnightUpdate(context);
+            Log.d(TAG, "Widget text won't change, no update scheduled");
+            return;
+        }
+
+        if (triggerTime == armedTriggerTime) {
+            // Already armed for this moment
+            return;
+        }
+
         AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
         if (alarmManager == null) {
             Log.e(TAG, "AlarmManager is null");
             return;
         }
-        
-        // Cancel any existing midnight alarm
-        cancelMidnightUpdate(context);
-        
-        // Create intent for midnight update
-        Intent intent = new Intent(context, MidnightUpdateReceiver.class);
-        intent.setAction(MidnightUpdateReceiver.getMidnightUpdateAction());
-        
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(
-            context, 
-            MIDNIGHT_REQUEST_CODE, 
-            intent, 
-            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-        );
-        
-        // Calculate next midnight
-        Calendar midnight = Calendar.getInstance();
-        midnight.add(Calendar.DAY_OF_YEAR, 1); // Tomorrow
-        midnight.set(Calendar.HOUR_OF_DAY, 0);
-        midnight.set(Calendar.MINUTE, 0);
-        midnight.set(Calendar.SECOND, 0);
-        midnight.set(Calendar.MILLISECOND, 0);
-        
-        long triggerTime = midnight.getTimeInMillis();
-        
+
+        // Same request code, so this replaces any existing alarm
+        PendingIntent pendingIntent = createPendingIntent(context, triggerTime);
+
         // Schedule the alarm
         try {
-            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerTime, pendingIntent);
-            Log.d(TAG, "Midnight update scheduled for: " + midnight.getTime().toString());
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && !alarmManager.canScheduleExactAlarms()) {
+                // Without the exact alarm permission the label may update a little late
+                alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerTime, pendingIntent);
+            } else {
+                alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerTime, pendingIntent);
+            }
+            armedTriggerTime = triggerTime;
+            Log.d(TAG, "Widget update scheduled for: " + new java.util.Date(triggerTime));
         } catch (Exception e) {
-            Log.e(TAG, "Failed to schedule midnight update: " + e.getMessage());
+            Log.e(TAG, "Failed to schedule widget update: " + e.getMessage());
         }
     }
-    
-    public static void cancelMidnightUpdate(Context context) {
+
+    // Forget the armed alarm so the next schedule call re-arms it, e.g. after boot or a clock change
+    public static synchronized void rescheduleNextUpdate(Context context) {
+        armedTriggerTime = 0;
+        scheduleNextUpdate(context);
+    }
+
+    public static synchronized void cancelMidnightUpdate(Context context) {
+        armedTriggerTime = 0;
+
         AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
         if (alarmManager == null) {
             return;
         }
-        
+
+        alarmManager.cancel(createPendingIntent(context, 0));
+        Log.d(TAG, "Widget update cancelled");
+    }
+
+    public static void initializeMidnightScheduler(Context context) {
+        // Schedule the next update when the app starts or widget is added
+        scheduleNextUpdate(context);
+    }
+
+    private static PendingIntent createPendingIntent(Context context, long triggerTime) {
         Intent intent = new Intent(context, MidnightUpdateReceiver.class);
         intent.setAction(MidnightUpdateReceiver.getMidnightUpdateAction());
-        
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(
-            context, 
-            MIDNIGHT_REQUEST_CODE, 
-            intent, 
+        intent.putExtra(EXTRA_TRIGGER_TIME, triggerTime);
+
+        return PendingIntent.getBroadcast(
+            context,
+            MIDNIGHT_REQUEST_CODE,
+            intent,
             PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
         );
-        
-        alarmManager.cancel(pendingIntent);
-        Log.d(TAG, "Midnight update cancelled");
-    }
-    
-    public static void initializeMidnightScheduler(Context context) {
-        // Schedule the first midnight update when the app starts or widget is added
-        scheduleMidnightUpdate(context);
-        Log.d(TAG, "Midnight scheduler initialized");
     }
 }
@@ -3,8 +3,6 @@ package com.parkingwidgetapp;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.appwidget.AppWidgetManager;
-import android.content.ComponentName;
 import android.util.Log;
 
 public class MidnightUpdateReceiver extends BroadcastReceiver {
@@ -13,43 +11,49 @@ public class MidnightUpdateReceiver extends BroadcastReceiver {
     
     @Override
     public void onReceive(Context context, Intent intent) {
-        Log.d(TAG, "Midnight update triggered");
+        String action = intent.getAction();
+        Log.d(TAG, "Widget update triggered: " + action);
         
-        if (ACTION_MIDNIGHT_UPDATE.equals(intent.getAction())) {
-            updateAllWidgets(context);
-            // Schedule next midnight update
-            MidnightScheduler.scheduleMidnightUpdate(context);
+        final Context appContext = context.getApplicationContext();
+        if (ACTION_MIDNIGHT_UPDATE.equals(action)) {
+            recordLateness(intent);
+            WidgetBroadcastExecutor.execute(this, "MidnightUpdateReceiver.onReceive", new Runnable() {
+                @Override
+                public void run() {
+                    updateAllWidgets(appContext);
+                    // Schedule the next change, if there is one
+                    MidnightScheduler.rescheduleNextUpdate(appContext);
+                }
+            });
+        } else if (Intent.ACTION_BOOT_COMPLETED.equals(action)
+                || Intent.ACTION_TIME_CHANGED.equals(action)
+                || Intent.ACTION_TIMEZONE_CHANGED.equals(action)) {
+            WidgetBroadcastExecutor.execute(this, "MidnightUpdateReceiver.onReceive", new Runnable() {
+                @Override
+                public void run() {
+                    // Day boundaries moved or alarms were cleared
+                    RelativeTimeFormatter.getDefault().invalidate();
+                    updateAllWidgets(appContext);
+                    MidnightScheduler.rescheduleNextUpdate(appContext);
+                }
+            });
         }
     }
     
-    private void updateAllWidgets(Context context) {
-        AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(context);
-        
-        // Update Wide widgets
-        int[] wideWidgetIds = appWidgetManager.getAppWidgetIds(
-            new ComponentName(context, ParkingWidgetWideProvider.class));
-        if (wideWidgetIds.length > 0) {
-            ParkingWidgetUtil.updateWidget(context, appWidgetManager, wideWidgetIds, 
-                R.layout.widget_parking_wide, "WideWidget");
-        }
-        
-        // Update Medium widgets
-        int[] mediumWidgetIds = appWidgetManager.getAppWidgetIds(
-            new ComponentName(context, ParkingWidgetMediumProvider.class));
-        if (mediumWidgetIds.length > 0) {
-            ParkingWidgetUtil.updateWidget(context, appWidgetManager, mediumWidgetIds, 
-                R.layout.widget_parking_medium, "MediumWidget");
-        }
-        
-        // Update Square widgets
-        int[] squareWidgetIds = appWidgetManager.getAppWidgetIds(
-            new ComponentName(context, ParkingWidgetSquareProvider.class));
-        if (squareWidgetIds.length > 0) {
-            ParkingWidgetUtil.updateWidget(context, appWidgetManager, squareWidgetIds, 
-                R.layout.widget_parking_square, "SquareWidget");
+    private void recordLateness(Intent intent) {
+        MetricsRegistry.ALARM_FIRES.increment();
+        long triggerTime = intent.getLongExtra(MidnightScheduler.EXTRA_TRIGGER_TIME, 0);
+        if (triggerTime > 0) {
+            long lateness = System.currentTimeMillis() - triggerTime;
+            MetricsRegistry.ALARM_LATENESS_MS.record(lateness);
+            Log.d(TAG, "Alarm fired " + lateness + " ms after its trigger time");
         }
-        
-        Log.d(TAG, "All widgets updated at midnight");
+    }
+    
+    private void updateAllWidgets(Context context) {
+        // Render right away, the broadcast is only kept alive until this work returns
+        WidgetRefreshDispatcher.refreshNow(context);
+        Log.d(TAG, "All widgets updated");
     }
     
     public static String getMidnightUpdateAction() {
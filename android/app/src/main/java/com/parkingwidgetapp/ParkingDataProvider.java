@@ -0,0 +1,151 @@
+package com.parkingwidgetapp;
+
+import android.content.ContentProvider;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.UriMatcher;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.util.Log;
+
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+
+/**
+ * Read-only view of the saved parking locations, one row per vehicle slot.
+ * insert, update and delete change nothing and report so. Writes go through
+ * {@link ParkingStorageWriter}, which calls {@link #notifyChange} once per committed
+ * change; widgets and React Native observe the slot URIs instead of being refreshed by hand.
+ */
+public class ParkingDataProvider extends ContentProvider {
+    private static final String TAG = "ParkingDataProvider";
+
+    public static final String AUTHORITY = "com.parkingwidgetapp.parking";
+    public static final Uri CONTENT_URI = Uri.parse("content://" + AUTHORITY + "/slots");
+
+    public static final String COLUMN_SLOT = "slot";
+    public static final String COLUMN_LOCATION = "location";
+    public static final String COLUMN_TIMESTAMP = "timestamp";
+    public static final String COLUMN_UNDERGROUND = "underground";
+    public static final String COLUMN_FLOOR_NUMBER = "floor_number";
+    public static final String COLUMN_AREA = "area";
+    public static final String COLUMN_VERSION = "version";
+
+    private static final String[] COLUMNS = {
+        COLUMN_SLOT, COLUMN_LOCATION, COLUMN_TIMESTAMP, COLUMN_UNDERGROUND,
+        COLUMN_FLOOR_NUMBER, COLUMN_AREA, COLUMN_VERSION
+    };
+
+    private static final int MATCH_SLOTS = 1;
+    private static final int MATCH_SLOT = 2;
+
+    private static final UriMatcher matcher = new UriMatcher(UriMatcher.NO_MATCH);
+    static {
+        matcher.addURI(AUTHORITY, "slots", MATCH_SLOTS);
+        matcher.addURI(AUTHORITY, "slots/#", MATCH_SLOT);
+    }
+
+    public static Uri slotUri(int slot) {
+        return ContentUris.withAppendedId(CONTENT_URI, slot);
+    }
+
+    // Returns the slot of a slot URI, or -1 for the collection URI or anything else
+    public static int parseSlot(Uri uri) {
+        if (uri == null || matcher.match(uri) != MATCH_SLOT) {
+            return -1;
+        }
+        int slot = (int) ContentUris.parseId(uri);
+        return VehicleSlots.isValid(slot) ? slot : -1;
+    }
+
+    // Tells every observer that a slot changed, call after the new state is in ParkingStateCache
+    public static void notifyChange(Context context, int slot) {
+        context.getContentResolver().notifyChange(slotUri(slot), null);
+        Log.d(TAG, "Notified change of slot " + slot);
+    }
+
+    @Override
+    public boolean onCreate() {
+        return true;
+    }
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                        String sortOrder) {
+        int first;
+        int last;
+        switch (matcher.match(uri)) {
+            case MATCH_SLOTS:
+                first = 0;
+                last = VehicleSlots.MAX_SLOTS - 1;
+                break;
+            case MATCH_SLOT:
+                first = last = parseSlot(uri);
+                if (first < 0) {
+                    return new MatrixCursor(COLUMNS, 0);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown URI: " + uri);
+        }
+
+        Context context = getContext();
+        MatrixCursor cursor = new MatrixCursor(COLUMNS, last - first + 1);
+        for (int slot = first; slot <= last; slot++) {
+            ParkingState state = ParkingStateCache.get(context, slot);
+            ParkingRecord record = state.getRecord();
+            cursor.addRow(new Object[]{
+                slot,
+                state.getLocation(),
+                state.getTimestamp(),
+                record != null ? (record.isUnderground() ? 1 : 0) : null,
+                record != null ? record.getFloorNumber() : null,
+                record != null ? record.getArea() : null,
+                state.getVersion()
+            });
+        }
+        cursor.setNotificationUri(context.getContentResolver(), uri);
+        return cursor;
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        switch (matcher.match(uri)) {
+            case MATCH_SLOTS:
+                return "vnd.android.cursor.dir/vnd." + AUTHORITY + ".slot";
+            case MATCH_SLOT:
+                return "vnd.android.cursor.item/vnd." + AUTHORITY + ".slot";
+            default:
+                return null;
+        }
+    }
+
+    // adb shell dumpsys activity provider com.parkingwidgetapp/.ParkingDataProvider
+    @Override
+    public void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        MetricsRegistry.dump(writer);
+    }
+
+    // Read-only: writes are ignored the way a provider without the row would, rather than
+    // crashing a caller in another process
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        Log.w(TAG, "Ignored insert into " + uri + ", parking data is written through ParkingStorageWriter");
+        return null;
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        Log.w(TAG, "Ignored update of " + uri + ", parking data is written through ParkingStorageWriter");
+        return 0;
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        Log.w(TAG, "Ignored delete of " + uri + ", parking data is written through ParkingStorageWriter");
+        return 0;
+    }
+}
@@ -0,0 +1,194 @@
+package com.parkingwidgetapp;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import java.util.List;
+
+/**
+ * History of parking saves and deletes, with the running {@link ParkingStatistics} and
+ * the {@link SuggestionIndex} persisted next to it so they never have to be recomputed
+ * from the history. Events are recorded on the storage writer thread.
+ */
+public class ParkingHistoryStore {
+    private static final String TAG = "ParkingHistoryStore";
+
+    private static final String DATABASE_NAME = "ParkingHistory.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String TABLE_HISTORY = "history";
+    private static final String TABLE_AGGREGATES = "aggregates";
+    private static final int AGGREGATES_ROW_ID = 1;
+    private static final int SUGGESTIONS_ROW_ID = 2;
+
+    // Only the most recent events are kept, the aggregates cover everything
+    private static final int MAX_HISTORY_ROWS = 1000;
+
+    static final int EVENT_SAVE = 1;
+    static final int EVENT_DELETE = 2;
+
+    private static volatile ParkingHistoryStore instance;
+
+    private final HistoryHelper helper;
+    private volatile ParkingStatistics statistics;
+    private volatile SuggestionIndex suggestions;
+
+    private ParkingHistoryStore(Context context) {
+        helper = new HistoryHelper(context);
+    }
+
+    public static ParkingHistoryStore getInstance(Context context) {
+        if (instance == null) {
+            synchronized (ParkingHistoryStore.class) {
+                if (instance == null) {
+                    instance = new ParkingHistoryStore(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    public ParkingStatistics.Snapshot getSnapshot() {
+        ParkingStatistics stats = statistics;
+        if (stats == null) {
+            stats = ensureLoaded();
+        }
+        return stats.getSnapshot();
+    }
+
+    // Best floor and area suggestions first, loading them from disk on first use
+    public List<ParkingRecord> getSuggestions() {
+        SuggestionIndex index = suggestions;
+        if (index == null) {
+            ensureLoaded();
+            index = suggestions;
+        }
+        return index.getTop();
+    }
+
+    // Suggestions if they have been loaded already, or null; never touches the disk
+    public List<ParkingRecord> peekSuggestions() {
+        SuggestionIndex index = suggestions;
+        return index != null ? index.getTop() : null;
+    }
+
+    public synchronized void recordSave(ParkingRecord record, ParkingState previous) {
+        ParkingStatistics stats = ensureLoaded();
+        long durationMs = previous != null && previous.hasLocation() && previous.getTimestamp() > 0
+            ? record.getTimestamp() - previous.getTimestamp()
+            : 0;
+        stats.onSave(record, previous);
+        suggestions.onSave(record);
+        persist(EVENT_SAVE, record.getTimestamp(), record, durationMs, stats, suggestions);
+    }
+
+    public synchronized void recordDelete(ParkingState previous, long deletedAt) {
+        ParkingStatistics stats = ensureLoaded();
+        long durationMs = previous != null && previous.hasLocation() && previous.getTimestamp() > 0
+            ? deletedAt - previous.getTimestamp()
+            : 0;
+        stats.onDelete(previous, deletedAt);
+        persist(EVENT_DELETE, deletedAt, previous != null ? previous.getRecord() : null, durationMs, stats, null);
+    }
+
+    private synchronized ParkingStatistics ensureLoaded() {
+        if (statistics != null) {
+            return statistics;
+        }
+
+        byte[] statisticsData = null;
+        byte[] suggestionsData = null;
+        try {
+            SQLiteDatabase db = helper.getReadableDatabase();
+            Cursor cursor = db.query(TABLE_AGGREGATES, new String[]{"id", "data"}, null, null, null, null, null);
+            try {
+                while (cursor.moveToNext()) {
+                    if (cursor.getInt(0) == AGGREGATES_ROW_ID) {
+                        statisticsData = cursor.getBlob(1);
+                    } else if (cursor.getInt(0) == SUGGESTIONS_ROW_ID) {
+                        suggestionsData = cursor.getBlob(1);
+                    }
+                }
+            } finally {
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error loading parking statistics: " + e.getMessage());
+        }
+
+        // Suggestions first, statistics != null means both are loaded
+        suggestions = SuggestionIndex.decode(suggestionsData);
+        statistics = ParkingStatistics.decode(statisticsData);
+        return statistics;
+    }
+
+    // Suggestions may be null if the event didn't change them
+    private void persist(int event, long timestamp, ParkingRecord record, long durationMs,
+                         ParkingStatistics stats, SuggestionIndex index) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues history = new ContentValues();
+            history.put("event", event);
+            history.put("timestamp", timestamp);
+            if (record != null) {
+                history.put("underground", record.isUnderground() ? 1 : 0);
+                history.put("floor_tenths", record.getFloorTenths());
+                history.put("area", record.getArea());
+            }
+            history.put("duration_ms", durationMs);
+            long rowId = db.insert(TABLE_HISTORY, null, history);
+            if (rowId > MAX_HISTORY_ROWS) {
+                db.delete(TABLE_HISTORY, "_id <= ?", new String[]{String.valueOf(rowId - MAX_HISTORY_ROWS)});
+            }
+
+            ContentValues aggregates = new ContentValues();
+            aggregates.put("id", AGGREGATES_ROW_ID);
+            aggregates.put("data", stats.encode());
+            db.insertWithOnConflict(TABLE_AGGREGATES, null, aggregates, SQLiteDatabase.CONFLICT_REPLACE);
+
+            if (index != null) {
+                ContentValues suggestionRow = new ContentValues();
+                suggestionRow.put("id", SUGGESTIONS_ROW_ID);
+                suggestionRow.put("data", index.encode());
+                db.insertWithOnConflict(TABLE_AGGREGATES, null, suggestionRow, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static class HistoryHelper extends SQLiteOpenHelper {
+
+        HistoryHelper(Context context) {
+            super(context, DATABASE_NAME, null, DATABASE_VERSION);
+            setWriteAheadLoggingEnabled(true);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE " + TABLE_HISTORY + " ("
+                + "_id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "event INTEGER NOT NULL, "
+                + "timestamp INTEGER NOT NULL, "
+                + "underground INTEGER, "
+                + "floor_tenths INTEGER, "
+                + "area TEXT, "
+                + "duration_ms INTEGER NOT NULL DEFAULT 0)");
+            db.execSQL("CREATE TABLE " + TABLE_AGGREGATES + " ("
+                + "id INTEGER PRIMARY KEY, "
+                + "data BLOB NOT NULL)");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            // Only one version so far
+        }
+    }
+}
@@ -4,31 +4,32 @@ import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.Context;
 import android.content.DialogInterface;
-import android.database.sqlite.SQLiteDatabase;
-import android.database.Cursor;
-import android.content.ContentValues;
 import android.os.Bundle;
 import android.view.View;
 import android.view.Window;
 import android.view.WindowManager;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.HorizontalScrollView;
+import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 import android.text.TextWatcher;
 import android.text.Editable;
+import android.text.Selection;
 import android.util.Log;
 import android.os.Handler;
 import android.os.Looper;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
 import android.view.inputmethod.InputMethodManager;
-import com.facebook.react.ReactApplication;
-import com.facebook.react.bridge.ReactApplicationContext;
+
+import java.util.List;
 
 public class ParkingInputDialogActivity extends Activity {
     private static final String TAG = "ParkingInputDialog";
     
+    private TextView titleText;
     private TextView currentLocationText;
     private TextView savedTimeText;
     private Button floorTypeUnderground;
@@ -39,8 +40,13 @@ public class ParkingInputDialogActivity extends Activity {
     private Button cancelButton;
     private Button editButton;
     private Button deleteButton;
+    private HorizontalScrollView suggestionScroll;
+    private LinearLayout suggestionChips;
     
+    // Vehicle slot of the widget that opened the dialog
+    private int slot = VehicleSlots.DEFAULT_SLOT;
     private String currentSavedLocation = null;
+    private ParkingRecord currentRecord = null;
     private long savedTimestamp = 0;
     private boolean isUndergroundSelected = true;
     private boolean isEditingMode = false;
@@ -56,17 +62,44 @@ public class ParkingInputDialogActivity extends Activity {
         // Remove title bar
         requestWindowFeature(Window.FEATURE_NO_TITLE);
         
-        setContentView(R.layout.activity_parking_input_dialog);
+        ParkingTrace.begin("ParkingDialog.setContentView");
+        try {
+            setContentView(R.layout.activity_parking_input_dialog);
+        } finally {
+            ParkingTrace.end();
+        }
         
         // Make dialog wider and adjust size
         setupDialogWindow();
         
-        initializeViews();
-        loadSavedLocation();
+        resolveSlot();
+        
+        ParkingTrace.begin("ParkingDialog.initializeViews");
+        try {
+            initializeViews();
+        } finally {
+            ParkingTrace.end();
+        }
+        
+        ParkingTrace.begin("ParkingDialog.loadSavedLocation");
+        try {
+            loadSavedLocation();
+        } finally {
+            ParkingTrace.end();
+        }
+        
         setupListeners();
-        updateUI();
+        
+        ParkingTrace.begin("ParkingDialog.updateUI");
+        try {
+            updateUI();
+        } finally {
+            ParkingTrace.end();
+        }
         overridePendingTransition(R.anim.dialog_enter, 0);
         
+        loadSuggestions();
+        
         startTimestampUpdates();
         
         if (floorNumberInput != null) {
@@ -135,40 +168,6 @@ public class ParkingInputDialogActivity extends Activity {
         }
     }
     
-    private String getRelativeTimeString(long savedTimestamp) {
-        long currentTime = System.currentTimeMillis();
-        
-        // Check if saved timestamp is from today
-        java.util.Calendar savedCal = java.util.Calendar.getInstance();
-        savedCal.setTimeInMillis(savedTimestamp);
-        
-        java.util.Calendar currentCal = java.util.Calendar.getInstance();
-        currentCal.setTimeInMillis(currentTime);
-        
-        // Same day - show absolute time
-        if (savedCal.get(java.util.Calendar.YEAR) == currentCal.get(java.util.Calendar.YEAR) &&
-            savedCal.get(java.util.Calendar.DAY_OF_YEAR) == currentCal.get(java.util.Calendar.DAY_OF_YEAR)) {
-            
-            int hour = savedCal.get(java.util.Calendar.HOUR_OF_DAY);
-            int minute = savedCal.get(java.util.Calendar.MINUTE);
-            
-            String amPm = hour < 12 ? "오전" : "오후";
-            int displayHour = hour == 0 ? 12 : (hour > 12 ? hour - 12 : hour);
-            
-            return String.format("%s %d:%02d 저장", amPm, displayHour, minute);
-        }
-        
-        // Different day - show days ago
-        long timeDiff = currentTime - savedTimestamp;
-        long days = timeDiff / (24 * 60 * 60 * 1000);
-        
-        if (days == 0) {
-            days = 1; // If less than 24 hours but different day
-        }
-        
-        return days + "일 전";
-    }
-    
     private void startTimestampUpdates() {
         if (timestampHandler == null) {
             timestampHandler = new Handler(Looper.getMainLooper());
@@ -197,14 +196,21 @@ public class ParkingInputDialogActivity extends Activity {
         boolean hasSavedData = currentSavedLocation != null && !currentSavedLocation.trim().isEmpty();
         
         if (hasSavedData && savedTimestamp > 0) {
-            savedTimeText.setText(getRelativeTimeString(savedTimestamp));
+            savedTimeText.setText(RelativeTimeFormatter.getDefault().format(savedTimestamp));
             savedTimeText.setVisibility(View.VISIBLE);
         } else {
             savedTimeText.setVisibility(View.GONE);
         }
     }
     
+    private void resolveSlot() {
+        // Opened by a widget, which names itself or, for responsive widgets, its slot
+        slot = WidgetSlotBindings.getSlot(this, getIntent());
+        Log.d(TAG, "Opened for slot " + slot);
+    }
+    
     private void initializeViews() {
+        titleText = findViewById(R.id.dialog_title_text);
         currentLocationText = findViewById(R.id.current_location_text);
         savedTimeText = findViewById(R.id.saved_time_text);
         floorTypeUnderground = findViewById(R.id.floor_type_underground);
@@ -215,6 +221,13 @@ public class ParkingInputDialogActivity extends Activity {
         cancelButton = findViewById(R.id.cancel_button);
         editButton = findViewById(R.id.edit_button);
         deleteButton = findViewById(R.id.delete_button);
+        suggestionScroll = findViewById(R.id.suggestion_scroll);
+        suggestionChips = findViewById(R.id.suggestion_chips);
+        
+        // Name the vehicle when the widget shows another slot than the app
+        if (slot != VehicleSlots.DEFAULT_SLOT) {
+            titleText.setText(" 주차 메모 · " + VehicleSlots.getName(slot));
+        }
         
         // Set up toggle buttons
         setupToggleButtons();
@@ -260,6 +273,9 @@ public class ParkingInputDialogActivity extends Activity {
     
     private void setupFloorNumberFormatting() {
         floorNumberInput.addTextChangedListener(new TextWatcher() {
+            // Set while the engine edits the text, whose own change events are ignored
+            private boolean formatting;
+            
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {
                 // Not needed
@@ -272,40 +288,26 @@ public class ParkingInputDialogActivity extends Activity {
             
             @Override
             public void afterTextChanged(Editable s) {
-                String input = s.toString();
+                if (formatting) {
+                    return;
+                }
+                formatting = true;
+                int result;
+                try {
+                    result = FloorInputEngine.formatFloor(new EditableText(s), true);
+                } finally {
+                    formatting = false;
+                }
                 
-                // Remove any existing "층" first
-                if (input.endsWith("층")) {
-                    input = input.substring(0, input.length() - 1);
+                // Keep the cursor in front of the "층" suffix
+                int length = s.length();
+                if (length > 0 && Selection.getSelectionEnd(s) == length
+                        && s.charAt(length - 1) == ParkingLocationFormat.FLOOR_SUFFIX.charAt(0)) {
+                    Selection.setSelection(s, length - 1);
                 }
                 
-                // Check if input contains only numbers (including decimals)
-                if (!input.isEmpty() && input.matches("\\d+(\\.\\d*)?")) {
-                    // Validate floor number range (0-99.9)
-                    try {
-                        double floorNum = Double.parseDouble(input);
-                        if (floorNum > 99) {
-                            input = "99";
-                            Toast.makeText(ParkingInputDialogActivity.this, "입력하신 층수를 확인해주세요", Toast.LENGTH_SHORT).show();
-                        }
-                    } catch (NumberFormatException e) {
-                        // Invalid number, clear input
-                        floorNumberInput.removeTextChangedListener(this);
-                        floorNumberInput.setText("");
-                        floorNumberInput.addTextChangedListener(this);
-                        return;
-                    }
-                    
-                    // Add "층" suffix
-                    String formatted = input + "층";
-                    
-                    // Only update if it's different to avoid infinite loop
-                    if (!formatted.equals(s.toString())) {
-                        floorNumberInput.removeTextChangedListener(this);
-                        floorNumberInput.setText(formatted);
-                        floorNumberInput.setSelection(formatted.length() - 1); // Position cursor before "층"
-                        floorNumberInput.addTextChangedListener(this);
-                    }
+                if ((result & FloorInputEngine.OUT_OF_RANGE) != 0) {
+                    Toast.makeText(ParkingInputDialogActivity.this, "입력하신 층수를 확인해주세요", Toast.LENGTH_SHORT).show();
                 }
             }
         });
@@ -313,6 +315,8 @@ public class ParkingInputDialogActivity extends Activity {
     
     private void setupAreaSectionValidation() {
         areaSectionInput.addTextChangedListener(new TextWatcher() {
+            private boolean formatting;
+            
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {
                 // Not needed
@@ -325,22 +329,48 @@ public class ParkingInputDialogActivity extends Activity {
             
             @Override
             public void afterTextChanged(Editable s) {
-                String input = s.toString();
+                if (formatting) {
+                    return;
+                }
+                formatting = true;
+                int result;
+                try {
+                    result = FloorInputEngine.limitArea(new EditableText(s));
+                } finally {
+                    formatting = false;
+                }
                 
-                // Check if input exceeds 30 characters
-                if (input.length() > 30) {
-                    // Truncate to 30 characters
-                    String truncated = input.substring(0, 30);
-                    areaSectionInput.removeTextChangedListener(this);
-                    areaSectionInput.setText(truncated);
-                    areaSectionInput.setSelection(truncated.length()); // Position cursor at end
-                    areaSectionInput.addTextChangedListener(this);
+                if ((result & FloorInputEngine.TRUNCATED) != 0) {
                     Toast.makeText(ParkingInputDialogActivity.this, "구역은 30자까지 입력 가능합니다.", Toast.LENGTH_SHORT).show();
                 }
             }
         });
     }
     
+    // Lets FloorInputEngine edit an Editable in place, so spans and the cursor are kept
+    private static final class EditableText implements FloorInputEngine.Text {
+        private final Editable editable;
+        
+        EditableText(Editable editable) {
+            this.editable = editable;
+        }
+        
+        @Override
+        public int length() {
+            return editable.length();
+        }
+        
+        @Override
+        public char charAt(int index) {
+            return editable.charAt(index);
+        }
+        
+        @Override
+        public void replace(int start, int end, CharSequence replacement) {
+            editable.replace(start, end, replacement);
+        }
+    }
+    
     private void setupListeners() {
         saveButton.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -384,55 +414,65 @@ public class ParkingInputDialogActivity extends Activity {
     }
     
     private void loadSavedLocation() {
-        try {
-            // Read from AsyncStorage SQLite database
-            SQLiteDatabase db = SQLiteDatabase.openDatabase(
-                getDatabasePath("RKStorage").getPath(),
-                null,
-                SQLiteDatabase.OPEN_READONLY
-            );
-            
-            // Load parking location
-            Cursor cursor = db.query(
-                "catalystLocalStorage",
-                new String[]{"value"},
-                "key = ?",
-                new String[]{"parkingLocation"},
-                null,
-                null,
-                null
-            );
-            
-            if (cursor.moveToFirst()) {
-                currentSavedLocation = cursor.getString(0);
-                Log.d(TAG, "Loaded location: " + currentSavedLocation);
-            }
-            cursor.close();
-            
-            // Load timestamp
-            Cursor timestampCursor = db.query(
-                "catalystLocalStorage",
-                new String[]{"value"},
-                "key = ?",
-                new String[]{"parkingLocationTimestamp"},
-                null,
-                null,
-                null
-            );
-            
-            if (timestampCursor.moveToFirst()) {
-                savedTimestamp = Long.parseLong(timestampCursor.getString(0));
-                Log.d(TAG, "Loaded timestamp: " + savedTimestamp);
+        ParkingState state = ParkingStateCache.get(this, slot);
+        currentSavedLocation = state.getLocation();
+        currentRecord = state.getRecord();
+        savedTimestamp = state.getTimestamp();
+        Log.d(TAG, "Loaded location: " + currentSavedLocation + ", timestamp: " + savedTimestamp);
+    }
+    
+    private void loadSuggestions() {
+        // Usually loaded by ParkingStorageWriter.warmUp already, otherwise read off the main thread
+        List<ParkingRecord> suggestions = ParkingHistoryStore.getInstance(this).peekSuggestions();
+        if (suggestions != null) {
+            showSuggestions(suggestions);
+            return;
+        }
+        ParkingStorageWriter.loadSuggestions(this, new ParkingStorageWriter.SuggestionsCallback() {
+            @Override
+            public void onLoaded(List<ParkingRecord> loaded) {
+                if (!isFinishing()) {
+                    showSuggestions(loaded);
+                }
             }
-            timestampCursor.close();
-            
-            db.close();
+        });
+    }
+    
+    private void showSuggestions(List<ParkingRecord> suggestions) {
+        suggestionChips.removeAllViews();
+        float density = getResources().getDisplayMetrics().density;
+        int paddingHorizontal = (int) (12 * density);
+        int paddingVertical = (int) (6 * density);
+        
+        for (final ParkingRecord suggestion : suggestions) {
+            TextView chip = new TextView(this);
+            chip.setText(suggestion.toLocationString());
+            chip.setTextSize(13);
+            chip.setTextColor(Color.parseColor("#333333"));
+            chip.setBackgroundResource(R.drawable.dialog_suggestion_chip);
+            chip.setPadding(paddingHorizontal, paddingVertical, paddingHorizontal, paddingVertical);
+            chip.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    applySuggestion(suggestion);
+                }
+            });
             
-        } catch (Exception e) {
-            Log.e(TAG, "Error reading from AsyncStorage: " + e.getMessage());
-            currentSavedLocation = null;
-            savedTimestamp = 0;
+            LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.WRAP_CONTENT, LinearLayout.LayoutParams.WRAP_CONTENT);
+            params.setMarginEnd((int) (6 * density));
+            suggestionChips.addView(chip, params);
         }
+        suggestionScroll.setVisibility(suggestions.isEmpty() ? View.GONE : View.VISIBLE);
+    }
+    
+    // Fills the inputs with a suggestion, saving is still up to the user
+    private void applySuggestion(ParkingRecord suggestion) {
+        selectFloorType(suggestion.isUnderground());
+        floorNumberInput.setText(suggestion.getFloorNumber());
+        areaSectionInput.setText(suggestion.getArea());
+        areaSectionInput.setSelection(areaSectionInput.length());
+        areaSectionInput.requestFocus();
     }
     
     private void updateUI() {
@@ -459,26 +499,21 @@ public class ParkingInputDialogActivity extends Activity {
     }
     
     private void editCurrentLocation() {
-        if (currentSavedLocation != null && !currentSavedLocation.trim().isEmpty()) {
-            // Parse the saved location
-            String[] parts = currentSavedLocation.split(" ");
-            if (parts.length >= 2) {
-                // Set floor type
-                String floorType = parts[0];
-                selectFloorType(floorType.equals("지하"));
-                
-                // Set floor number
-                String floorNumber = parts[1].replace("층", "");
-                floorNumberInput.setText(floorNumber);
-                
-                // Set area section
-                if (parts.length > 2) {
-                    StringBuilder areaBuilder = new StringBuilder();
-                    for (int i = 2; i < parts.length; i++) {
-                        if (i > 2) areaBuilder.append(" ");
-                        areaBuilder.append(parts[i]);
-                    }
-                    areaSectionInput.setText(areaBuilder.toString());
+        if (currentRecord != null) {
+            // Typed fields, no parsing needed
+            selectFloorType(currentRecord.isUnderground());
+            floorNumberInput.setText(currentRecord.getFloorNumber());
+            if (!currentRecord.getArea().isEmpty()) {
+                areaSectionInput.setText(currentRecord.getArea());
+            }
+        } else {
+            // Parse a legacy location that couldn't be migrated
+            String[] parts = ParkingLocationFormat.parse(currentSavedLocation);
+            if (parts != null) {
+                selectFloorType(parts[ParkingLocationFormat.PART_FLOOR_TYPE].equals(ParkingLocationFormat.UNDERGROUND));
+                floorNumberInput.setText(parts[ParkingLocationFormat.PART_FLOOR_NUMBER]);
+                if (!parts[ParkingLocationFormat.PART_AREA].isEmpty()) {
+                    areaSectionInput.setText(parts[ParkingLocationFormat.PART_AREA]);
                 }
             }
         }
@@ -527,164 +562,81 @@ public class ParkingInputDialogActivity extends Activity {
     }
     
     private void performDelete() {
-        try {
-            // Delete from AsyncStorage SQLite database
-            SQLiteDatabase db = SQLiteDatabase.openDatabase(
-                getDatabasePath("RKStorage").getPath(),
-                null,
-                SQLiteDatabase.OPEN_READWRITE
-            );
-            
-            // Use transaction to ensure atomicity
-            db.beginTransaction();
-            try {
-                db.delete("catalystLocalStorage", "key = ?", new String[]{"parkingLocation"});
-                db.delete("catalystLocalStorage", "key = ?", new String[]{"parkingLocationTimestamp"});
-                
-                db.setTransactionSuccessful();
-            } finally {
-                db.endTransaction();
-                db.close();
+        final Context appContext = getApplicationContext();
+        ParkingStorageWriter.delete(appContext, slot, new ParkingStorageWriter.Callback() {
+            @Override
+            public void onCommitted(ParkingState state) {
+                Toast.makeText(appContext, "저장된 주차 메모가 삭제되었습니다.", Toast.LENGTH_SHORT).show();
             }
             
-            // Update widgets
-            ParkingWidgetMediumProvider.updateAllWidgets(this);
-            ParkingWidgetSquareProvider.updateAllWidgets(this);
-            ParkingWidgetWideProvider.updateAllWidgets(this);
-            
-            // Notify React Native about data change with slight delay to ensure DB write is complete
-            new Handler(Looper.getMainLooper()).postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    notifyReactNativeDataChanged();
-                }
-            }, 100);
-            
-            Toast.makeText(this, "저장된 주차 메모가 삭제되었습니다.", Toast.LENGTH_SHORT).show();
-            setEditingMode(false);
-            finish();
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error deleting location: " + e.getMessage());
-            Toast.makeText(this, "삭제 중 오류가 발생했습니다.", Toast.LENGTH_SHORT).show();
-        }
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Error deleting location: " + e.getMessage());
+                Toast.makeText(appContext, "삭제 중 오류가 발생했습니다.", Toast.LENGTH_SHORT).show();
+            }
+        });
+        
+        // The write finishes in the background, no need to keep the dialog open
+        setEditingMode(false);
+        finish();
     }
     
     private void saveLocation() {
-        // Get floor type
-        String floorType = isUndergroundSelected ? "지하" : "지상";
-        
         // Get floor number (remove "층" suffix if present)
-        String floorNumber = floorNumberInput.getText().toString().trim();
-        if (floorNumber.endsWith("층")) {
-            floorNumber = floorNumber.substring(0, floorNumber.length() - 1);
-        }
+        String floorNumber = ParkingLocationFormat.stripFloorSuffix(floorNumberInput.getText().toString().trim());
         
         // Get area section
         String areaSection = areaSectionInput.getText().toString().trim();
         
-        // Validate input
-        if (floorType.isEmpty() || floorNumber.isEmpty()) {
-            Toast.makeText(this, "층수를 입력해주세요.", Toast.LENGTH_SHORT).show();
-            return;
-        }
-        
         // Validate floor number format and range (0-99.9)
-        try {
-            // Check if it ends with a decimal point (incomplete number)
-            if (floorNumber.endsWith(".")) {
+        switch (ParkingLocationFormat.validateFloorNumber(floorNumber)) {
+            case ParkingLocationFormat.FLOOR_EMPTY:
+                Toast.makeText(this, "층수를 입력해주세요.", Toast.LENGTH_SHORT).show();
+                return;
+            case ParkingLocationFormat.FLOOR_INCOMPLETE:
                 Toast.makeText(this, "층수를 완전히 입력해주세요.", Toast.LENGTH_SHORT).show();
                 return;
-            }
-            
-            double floorNum = Double.parseDouble(floorNumber);
-            if (floorNum < 0 || floorNum > 99) {
-                Toast.makeText(this, "층수는 0부터 99까지 입력 가능합니다.", Toast.LENGTH_SHORT).show();
+            case ParkingLocationFormat.FLOOR_OUT_OF_RANGE:
+                Toast.makeText(this, "층수는 0부터 99.9까지 입력 가능합니다.", Toast.LENGTH_SHORT).show();
                 return;
-            }
-        } catch (NumberFormatException e) {
-            Toast.makeText(this, "올바른 층수를 입력해주세요.", Toast.LENGTH_SHORT).show();
-            return;
+            case ParkingLocationFormat.FLOOR_INVALID:
+                Toast.makeText(this, "올바른 층수를 입력해주세요.", Toast.LENGTH_SHORT).show();
+                return;
+            default:
+                break;
         }
         
         // Validate area section length (max 30 characters)
-        if (areaSection.length() > 30) {
+        if (areaSection.length() > ParkingLocationFormat.MAX_AREA_LENGTH) {
             Toast.makeText(this, "구역은 30자까지 입력 가능합니다.", Toast.LENGTH_SHORT).show();
             return;
         }
         
-        // Combine location
-        String combinedLocation = floorType + " " + floorNumber + "층";
-        if (!areaSection.isEmpty()) {
-            combinedLocation += " " + areaSection;
+        // Version is assigned by the writer
+        ParkingRecord record = ParkingRecord.create(isUndergroundSelected, floorNumber, areaSection,
+                                                    System.currentTimeMillis(), 0);
+        if (record == null) {
+            Toast.makeText(this, "올바른 층수를 입력해주세요.", Toast.LENGTH_SHORT).show();
+            return;
         }
         
-        try {
-            // Save to AsyncStorage SQLite database
-            SQLiteDatabase db = SQLiteDatabase.openDatabase(
-                getDatabasePath("RKStorage").getPath(),
-                null,
-                SQLiteDatabase.OPEN_READWRITE
-            );
-            
-            // Use transaction to ensure atomicity
-            db.beginTransaction();
-            try {
-                ContentValues locationValues = new ContentValues();
-                locationValues.put("key", "parkingLocation");
-                locationValues.put("value", combinedLocation);
-                
-                // Save timestamp
-                ContentValues timestampValues = new ContentValues();
-                timestampValues.put("key", "parkingLocationTimestamp");
-                timestampValues.put("value", String.valueOf(System.currentTimeMillis()));
-                
-                // Insert or replace both location and timestamp
-                db.insertWithOnConflict("catalystLocalStorage", null, locationValues, SQLiteDatabase.CONFLICT_REPLACE);
-                db.insertWithOnConflict("catalystLocalStorage", null, timestampValues, SQLiteDatabase.CONFLICT_REPLACE);
-                
-                db.setTransactionSuccessful();
-            } finally {
-                db.endTransaction();
-                db.close();
+        final String savedLocation = record.toLocationString();
+        final Context appContext = getApplicationContext();
+        ParkingStorageWriter.save(appContext, slot, record, new ParkingStorageWriter.Callback() {
+            @Override
+            public void onCommitted(ParkingState state) {
+                Toast.makeText(appContext, savedLocation + "으로 저장되었습니다.", Toast.LENGTH_SHORT).show();
             }
             
-            // Update widgets
-            ParkingWidgetMediumProvider.updateAllWidgets(this);
-            ParkingWidgetSquareProvider.updateAllWidgets(this);
-            ParkingWidgetWideProvider.updateAllWidgets(this);
-            
-            // Notify React Native about data change with slight delay to ensure DB write is complete
-            new Handler(Looper.getMainLooper()).postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    notifyReactNativeDataChanged();
-                }
-            }, 100);
-            
-            Toast.makeText(this, combinedLocation + "으로 저장되었습니다.", Toast.LENGTH_SHORT).show();
-            setEditingMode(false);
-            finish();
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error saving location: " + e.getMessage());
-            Toast.makeText(this, "저장 중 오류가 발생했습니다.", Toast.LENGTH_SHORT).show();
-        }
-    }
-    
-    private void notifyReactNativeDataChanged() {
-        try {
-            // Get the React Application context and emit data changed event
-            ReactApplication reactApp = (ReactApplication) getApplication();
-            ReactApplicationContext reactContext = 
-                (ReactApplicationContext) reactApp.getReactNativeHost().getReactInstanceManager().getCurrentReactContext();
-            
-            if (reactContext != null) {
-                ParkingWidgetModule.emitDataChangedEvent(reactContext);
-                Log.d(TAG, "Notified React Native about data change");
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Error saving location: " + e.getMessage());
+                Toast.makeText(appContext, "저장 중 오류가 발생했습니다.", Toast.LENGTH_SHORT).show();
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error notifying React Native: " + e.getMessage());
-        }
+        });
+        
+        // The write finishes in the background, no need to keep the dialog open
+        setEditingMode(false);
+        finish();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package com.parkingwidgetapp;
+
+/**
+ * Rules for the combined location string, e.g. "지하 2층 B-12".
+ * Shared by the input dialog and the benchmarks, so it must not depend on Android classes.
+ */
+public final class ParkingLocationFormat {
+
+    public static final String UNDERGROUND = "지하";
+    public static final String ABOVEGROUND = "지상";
+    public static final String FLOOR_SUFFIX = "층";
+    public static final int MAX_AREA_LENGTH = 30;
+
+    public static final int FLOOR_OK = 0;
+    public static final int FLOOR_EMPTY = 1;
+    public static final int FLOOR_INCOMPLETE = 2;
+    public static final int FLOOR_OUT_OF_RANGE = 3;
+    public static final int FLOOR_INVALID = 4;
+
+    // Index of the parts returned by parse()
+    public static final int PART_FLOOR_TYPE = 0;
+    public static final int PART_FLOOR_NUMBER = 1;
+    public static final int PART_AREA = 2;
+
+    private ParkingLocationFormat() {
+    }
+
+    // Validates the floor number without the "층" suffix (0-99.9)
+    public static int validateFloorNumber(String floorNumber) {
+        if (floorNumber == null || floorNumber.isEmpty()) {
+            return FLOOR_EMPTY;
+        }
+
+        // Check if it ends with a decimal point (incomplete number)
+        if (floorNumber.endsWith(".")) {
+            return FLOOR_INCOMPLETE;
+        }
+
+        try {
+            double floorNum = Double.parseDouble(floorNumber);
+            if (floorNum < 0 || floorNum >= 100) {
+                return FLOOR_OUT_OF_RANGE;
+            }
+        } catch (NumberFormatException e) {
+            return FLOOR_INVALID;
+        }
+
+        // Floors are stored in tenths, so at most one decimal
+        int dot = floorNumber.indexOf('.');
+        if (dot >= 0 && floorNumber.length() - dot > 2) {
+            return FLOOR_INVALID;
+        }
+        return FLOOR_OK;
+    }
+
+    public static String stripFloorSuffix(String floorNumber) {
+        if (floorNumber.endsWith(FLOOR_SUFFIX)) {
+            return floorNumber.substring(0, floorNumber.length() - FLOOR_SUFFIX.length());
+        }
+        return floorNumber;
+    }
+
+    public static String combine(boolean underground, String floorNumber, String areaSection) {
+        String combinedLocation = (underground ? UNDERGROUND : ABOVEGROUND) + " " + floorNumber + FLOOR_SUFFIX;
+        if (areaSection != null && !areaSection.isEmpty()) {
+            combinedLocation += " " + areaSection;
+        }
+        return combinedLocation;
+    }
+
+    // Short floor label for widget buttons, e.g. "B2" for 지하 2층 and "3F" for 지상 3층
+    public static String shortFloorLabel(boolean underground, String floorNumber) {
+        return underground ? "B" + floorNumber : floorNumber + "F";
+    }
+
+    // Splits a saved location into floor type, floor number and area, or returns null
+    public static String[] parse(String location) {
+        if (location == null || location.trim().isEmpty()) {
+            return null;
+        }
+
+        String[] parts = location.split(" ");
+        if (parts.length < 2) {
+            return null;
+        }
+
+        StringBuilder areaBuilder = new StringBuilder();
+        for (int i = 2; i < parts.length; i++) {
+            if (i > 2) areaBuilder.append(" ");
+            areaBuilder.append(parts[i]);
+        }
+
+        return new String[]{
+            parts[0],
+            parts[1].replace(FLOOR_SUFFIX, ""),
+            areaBuilder.toString()
+        };
+    }
+}
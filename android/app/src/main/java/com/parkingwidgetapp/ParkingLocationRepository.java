@@ -0,0 +1,297 @@
+package com.parkingwidgetapp;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import com.reactnativecommunity.asyncstorage.ReactDatabaseSupplier;
+
+/**
+ * Native access to the parking rows in React Native's AsyncStorage database (RKStorage).
+ * Goes through AsyncStorage's own ReactDatabaseSupplier, so native code and JS share one
+ * connection with the journal mode, version handling and clear() of the library, and the
+ * database isn't reopened for every read or write.
+ * Each vehicle slot has its own set of keys, see {@link VehicleSlots#key}.
+ *
+ * Every write of a slot bumps its version key inside the same transaction, and refuses to
+ * commit if the stored version is newer than the one the writer based its change on.
+ * The version key is kept across deletes, so versions never repeat.
+ */
+public class ParkingLocationRepository {
+    private static final String TAG = "ParkingLocationRepo";
+
+    // Must match AsyncStorage's ReactDatabaseSupplier
+    static final String TABLE = "catalystLocalStorage";
+    static final String KEY_LOCATION = "parkingLocation";
+    static final String KEY_TIMESTAMP = "parkingLocationTimestamp";
+    static final String KEY_RECORD = "parkingRecord";
+    static final String KEY_VERSION = "parkingVersion";
+
+    private static final String SQL_READ =
+        "SELECT key, value FROM " + TABLE + " WHERE key IN (?,?,?,?)";
+    private static final String SQL_READ_VERSION =
+        "SELECT value FROM " + TABLE + " WHERE key = ?";
+    private static final String SQL_UPSERT =
+        "INSERT OR REPLACE INTO " + TABLE + " (key, value) VALUES (?, ?)";
+    private static final String SQL_DELETE =
+        "DELETE FROM " + TABLE + " WHERE key IN (?,?,?)";
+
+    // Index of the keys in slotKeys
+    private static final int LOCATION = 0;
+    private static final int TIMESTAMP = 1;
+    private static final int RECORD = 2;
+    private static final int VERSION = 3;
+
+    /**
+     * Thrown when the stored version is newer than the one a write expected,
+     * i.e. another writer committed in the meantime.
+     */
+    public static class VersionConflictException extends IllegalStateException {
+        VersionConflictException(int slot, long expected, long stored) {
+            super("Slot " + slot + " is at version " + stored + ", expected " + expected);
+        }
+    }
+
+    private static volatile ParkingLocationRepository instance;
+
+    private final String[][] slotKeys = new String[VehicleSlots.MAX_SLOTS][];
+
+    private final Context context;
+    // Connection the compiled statements belong to, guarded by this
+    private SQLiteDatabase statementDatabase;
+    private SQLiteStatement upsertStatement;
+    private SQLiteStatement deleteStatement;
+    private SQLiteStatement readVersionStatement;
+
+    private ParkingLocationRepository(Context context) {
+        this.context = context;
+        for (int slot = 0; slot < VehicleSlots.MAX_SLOTS; slot++) {
+            slotKeys[slot] = new String[]{
+                VehicleSlots.key(KEY_LOCATION, slot),
+                VehicleSlots.key(KEY_TIMESTAMP, slot),
+                VehicleSlots.key(KEY_RECORD, slot),
+                VehicleSlots.key(KEY_VERSION, slot)
+            };
+        }
+    }
+
+    public static ParkingLocationRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (ParkingLocationRepository.class) {
+                if (instance == null) {
+                    instance = new ParkingLocationRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Reads location, timestamp, record and version of a slot with a single query
+    public ParkingState read(int slot) {
+        String[] keys = slotKeys[slot];
+        String parkingLocation = null;
+        long savedTimestamp = 0;
+        String encodedRecord = null;
+        long storedVersion = 0;
+
+        ParkingTrace.begin("ParkingDB.open");
+        SQLiteDatabase db;
+        try {
+            db = ReactDatabaseSupplier.getInstance(context).get();
+        } finally {
+            ParkingTrace.end();
+        }
+
+        ParkingTrace.begin("ParkingDB.query");
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery(SQL_READ, keys);
+            while (cursor.moveToNext()) {
+                String key = cursor.getString(0);
+                if (keys[LOCATION].equals(key)) {
+                    parkingLocation = cursor.getString(1);
+                } else if (keys[TIMESTAMP].equals(key)) {
+                    savedTimestamp = parseLong(cursor.getString(1));
+                } else if (keys[RECORD].equals(key)) {
+                    encodedRecord = cursor.getString(1);
+                } else if (keys[VERSION].equals(key)) {
+                    storedVersion = parseLong(cursor.getString(1));
+                }
+            }
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+            ParkingTrace.end();
+        }
+
+        if (parkingLocation == null || parkingLocation.trim().isEmpty()) {
+            return new ParkingState(parkingLocation, savedTimestamp, null, storedVersion);
+        }
+
+        ParkingRecord record = ParkingRecord.decode(encodedRecord);
+        if (record != null && matches(record, parkingLocation, savedTimestamp)) {
+            // Data saved before the version key existed only has the record's version
+            return new ParkingState(parkingLocation, savedTimestamp, record,
+                                    Math.max(record.getVersion(), storedVersion));
+        }
+
+        // The legacy string is missing its record or was rewritten from JS. Reported as is,
+        // ParkingStorageWriter.migrate() stores the record on the writer thread
+        long baseVersion = Math.max(record != null ? record.getVersion() : 0, storedVersion);
+        return new ParkingState(parkingLocation, savedTimestamp, null, baseVersion);
+    }
+
+    // True for a location stored only in the legacy format, see migrate()
+    public static boolean needsMigration(ParkingState state) {
+        return state.hasLocation() && state.getRecord() == null;
+    }
+
+    // Derives the record of a legacy location read as state and stores it as the next version.
+    // Returns the migrated state, or null if the location can't be parsed; throws
+    // VersionConflictException if the slot moved past state in the meantime
+    public synchronized ParkingState migrate(int slot, ParkingState state) {
+        ParkingRecord record = ParkingRecord.fromLegacy(state.getLocation(), state.getTimestamp(),
+                                                        state.getVersion() + 1);
+        if (record == null) {
+            return null;
+        }
+
+        String[] keys = slotKeys[slot];
+        SQLiteDatabase db = writableDatabase();
+        if (upsertStatement == null) {
+            upsertStatement = db.compileStatement(SQL_UPSERT);
+        }
+        db.beginTransaction();
+        try {
+            checkVersion(db, slot, state.getVersion());
+            upsert(keys[RECORD], record.encode());
+            upsert(keys[VERSION], String.valueOf(record.getVersion()));
+            db.setTransactionSuccessful();
+        } finally {
+            upsertStatement.clearBindings();
+            db.endTransaction();
+        }
+        Log.d(TAG, "Migrated legacy location to " + record);
+        return new ParkingState(state.getLocation(), state.getTimestamp(), record);
+    }
+
+    // Saves the record together with the legacy keys React Native reads. The record must carry
+    // expectedVersion + 1; throws VersionConflictException if the slot moved past expectedVersion
+    public synchronized void save(int slot, ParkingRecord record, long expectedVersion) {
+        String[] keys = slotKeys[slot];
+        SQLiteDatabase db = writableDatabase();
+        if (upsertStatement == null) {
+            upsertStatement = db.compileStatement(SQL_UPSERT);
+        }
+
+        String location = record.toLocationString();
+
+        // Use transaction to ensure atomicity
+        db.beginTransaction();
+        try {
+            checkVersion(db, slot, expectedVersion);
+            upsert(keys[LOCATION], location);
+            upsert(keys[TIMESTAMP], String.valueOf(record.getTimestamp()));
+            upsert(keys[RECORD], record.encode());
+            upsert(keys[VERSION], String.valueOf(record.getVersion()));
+
+            db.setTransactionSuccessful();
+        } finally {
+            upsertStatement.clearBindings();
+            db.endTransaction();
+        }
+        Log.d(TAG, "Saved slot " + slot + " location: " + location + ", record: " + record);
+    }
+
+    // Deletes the location of a slot, returns the version of the deletion.
+    // Throws VersionConflictException if the slot moved past expectedVersion
+    public synchronized long delete(int slot, long expectedVersion) {
+        String[] keys = slotKeys[slot];
+        SQLiteDatabase db = writableDatabase();
+        if (deleteStatement == null) {
+            deleteStatement = db.compileStatement(SQL_DELETE);
+        }
+        if (upsertStatement == null) {
+            upsertStatement = db.compileStatement(SQL_UPSERT);
+        }
+
+        long version = expectedVersion + 1;
+        db.beginTransaction();
+        try {
+            checkVersion(db, slot, expectedVersion);
+            deleteStatement.bindString(1, keys[LOCATION]);
+            deleteStatement.bindString(2, keys[TIMESTAMP]);
+            deleteStatement.bindString(3, keys[RECORD]);
+            deleteStatement.executeUpdateDelete();
+            upsert(keys[VERSION], String.valueOf(version));
+
+            db.setTransactionSuccessful();
+        } finally {
+            deleteStatement.clearBindings();
+            upsertStatement.clearBindings();
+            db.endTransaction();
+        }
+        Log.d(TAG, "Deleted parking location of slot " + slot + " at version " + version);
+        return version;
+    }
+
+    // Shared connection of AsyncStorage. It may be closed and reopened by the library, e.g. after
+    // an error during clear(), so statements compiled on an older connection are dropped
+    private synchronized SQLiteDatabase writableDatabase() {
+        SQLiteDatabase db = ReactDatabaseSupplier.getInstance(context).get();
+        if (db != statementDatabase) {
+            statementDatabase = db;
+            upsertStatement = null;
+            deleteStatement = null;
+            readVersionStatement = null;
+        }
+        return db;
+    }
+
+    // Compare step of a write, called inside its transaction. The stored version may lag behind
+    // the expected one for data saved before the version key existed, but never run ahead of it
+    private void checkVersion(SQLiteDatabase db, int slot, long expectedVersion) {
+        if (readVersionStatement == null) {
+            readVersionStatement = db.compileStatement(SQL_READ_VERSION);
+        }
+        long stored;
+        readVersionStatement.bindString(1, slotKeys[slot][VERSION]);
+        try {
+            stored = parseLong(readVersionStatement.simpleQueryForString());
+        } catch (SQLiteDoneException e) {
+            stored = 0;
+        } finally {
+            readVersionStatement.clearBindings();
+        }
+        if (stored > expectedVersion) {
+            throw new VersionConflictException(slot, expectedVersion, stored);
+        }
+    }
+
+    private void upsert(String key, String value) {
+        upsertStatement.bindString(1, key);
+        upsertStatement.bindString(2, value);
+        upsertStatement.executeInsert();
+    }
+
+    // A record is only valid while it still describes the legacy string next to it
+    private static boolean matches(ParkingRecord record, String location, long timestamp) {
+        return record.getTimestamp() == timestamp && record.toLocationString().equals(location.trim());
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            Log.w(TAG, "Invalid number: " + value);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.parkingwidgetapp;
+
+/**
+ * Typed form of a saved parking location.
+ * Stored next to the legacy "지하 2층 B-12" string so edits read fields instead of re-parsing it.
+ *
+ * Encoding (format 1): "1;<underground 0|1>;<floor x10>;<timestamp>;<version>;<area>".
+ * The area is last so it may contain any character, including ';' and spaces.
+ */
+public final class ParkingRecord {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final char SEPARATOR = ';';
+    private static final int FIELD_COUNT = 6;
+    // Highest floor the dialog accepts, 99.9층
+    private static final int MAX_FLOOR_TENTHS = 999;
+
+    private final boolean underground;
+    private final int floorTenths;
+    private final String area;
+    private final long timestamp;
+    private final long version;
+
+    public ParkingRecord(boolean underground, int floorTenths, String area, long timestamp, long version) {
+        this.underground = underground;
+        this.floorTenths = floorTenths;
+        this.area = area != null ? area : "";
+        this.timestamp = timestamp;
+        this.version = version;
+    }
+
+    // Builds a record from dialog input, or returns null if the floor number has more than one decimal
+    public static ParkingRecord create(boolean underground, String floorNumber, String area,
+                                       long timestamp, long version) {
+        int floorTenths = parseFloorTenths(floorNumber);
+        if (floorTenths < 0) {
+            return null;
+        }
+        return new ParkingRecord(underground, floorTenths, area != null ? area.trim() : "", timestamp, version);
+    }
+
+    // Migrates a legacy location string, or returns null if it doesn't follow the dialog's format
+    public static ParkingRecord fromLegacy(String location, long timestamp, long version) {
+        String[] parts = ParkingLocationFormat.parse(location);
+        if (parts == null) {
+            return null;
+        }
+
+        String floorType = parts[ParkingLocationFormat.PART_FLOOR_TYPE];
+        boolean underground = ParkingLocationFormat.UNDERGROUND.equals(floorType);
+        if (!underground && !ParkingLocationFormat.ABOVEGROUND.equals(floorType)) {
+            return null;
+        }
+
+        ParkingRecord record = create(underground, parts[ParkingLocationFormat.PART_FLOOR_NUMBER],
+                                      parts[ParkingLocationFormat.PART_AREA], timestamp, version);
+
+        // Only accept the migration if it reproduces the stored string
+        if (record == null || !record.toLocationString().equals(location.trim())) {
+            return null;
+        }
+        return record;
+    }
+
+    public static ParkingRecord decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return null;
+        }
+
+        int[] starts = new int[FIELD_COUNT];
+        int field = 1;
+        for (int i = 0; i < encoded.length() && field < FIELD_COUNT; i++) {
+            if (encoded.charAt(i) == SEPARATOR) {
+                starts[field++] = i + 1;
+            }
+        }
+        if (field < FIELD_COUNT) {
+            return null;
+        }
+
+        try {
+            int format = Integer.parseInt(encoded.substring(0, starts[1] - 1));
+            if (format != FORMAT_VERSION) {
+                return null;
+            }
+            boolean underground = encoded.charAt(starts[1]) == '1';
+            int floorTenths = Integer.parseInt(encoded.substring(starts[2], starts[3] - 1));
+            long timestamp = Long.parseLong(encoded.substring(starts[3], starts[4] - 1));
+            long version = Long.parseLong(encoded.substring(starts[4], starts[5] - 1));
+            String area = encoded.substring(starts[5]);
+            return new ParkingRecord(underground, floorTenths, area, timestamp, version);
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    public String encode() {
+        return new StringBuilder(24 + area.length())
+            .append(FORMAT_VERSION).append(SEPARATOR)
+            .append(underground ? '1' : '0').append(SEPARATOR)
+            .append(floorTenths).append(SEPARATOR)
+            .append(timestamp).append(SEPARATOR)
+            .append(version).append(SEPARATOR)
+            .append(area)
+            .toString();
+    }
+
+    // The legacy string shown on widgets, e.g. "지하 2층 B-12"
+    public String toLocationString() {
+        return ParkingLocationFormat.combine(underground, getFloorNumber(), area);
+    }
+
+    public ParkingRecord withVersion(long newVersion) {
+        return new ParkingRecord(underground, floorTenths, area, timestamp, newVersion);
+    }
+
+    // The floor whole levels above (positive) or below this one, e.g. 지하 1층 +1 is 지상 1층.
+    // The area is dropped when the floor changes since it belongs to the old floor, 0 levels
+    // keeps it; null past floor 99
+    public ParkingRecord withFloorOffset(int levels, long newTimestamp) {
+        // Below ground as negative tenths, so levels add up across the ground floor
+        int signed = underground ? -floorTenths : floorTenths;
+        int moved = signed + levels * 10;
+        if (moved == 0 && levels != 0) {
+            // There is no 지하 0층 between 지하 1층 and 지상 1층
+            moved += levels > 0 ? 10 : -10;
+        }
+        int movedTenths = Math.abs(moved);
+        if (movedTenths > MAX_FLOOR_TENTHS) {
+            return null;
+        }
+        boolean movedUnderground = moved < 0 || (moved == 0 && underground);
+        return new ParkingRecord(movedUnderground, movedTenths, levels == 0 ? area : "", newTimestamp, 0);
+    }
+
+    public boolean isUnderground() {
+        return underground;
+    }
+
+    // Floor number scaled by 10, e.g. 25 for 2.5층
+    public int getFloorTenths() {
+        return floorTenths;
+    }
+
+    // Floor number as typed in the dialog, e.g. "2" or "2.5"
+    public String getFloorNumber() {
+        return formatFloorNumber(floorTenths);
+    }
+
+    public String getArea() {
+        return area;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Formats 120 or 125 as "12" or "12.5"
+    public static String formatFloorNumber(int floorTenths) {
+        int whole = floorTenths / 10;
+        int tenth = floorTenths % 10;
+        return tenth == 0 ? String.valueOf(whole) : whole + "." + tenth;
+    }
+
+    // Parses "12" or "12.5" into 120 or 125, or returns -1
+    static int parseFloorTenths(String floorNumber) {
+        if (floorNumber == null) {
+            return -1;
+        }
+
+        int value = 0;
+        int wholeDigits = 0;
+        int length = floorNumber.length();
+        int i = 0;
+        for (; i < length && floorNumber.charAt(i) != '.'; i++) {
+            char c = floorNumber.charAt(i);
+            if (c < '0' || c > '9' || ++wholeDigits > 4) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (wholeDigits == 0) {
+            return -1;
+        }
+
+        value *= 10;
+        if (i < length) {
+            // Exactly one digit after the decimal point
+            if (length - i != 2) {
+                return -1;
+            }
+            char c = floorNumber.charAt(i + 1);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value += c - '0';
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ParkingRecord)) {
+            return false;
+        }
+        ParkingRecord other = (ParkingRecord) o;
+        return underground == other.underground
+            && floorTenths == other.floorTenths
+            && timestamp == other.timestamp
+            && version == other.version
+            && area.equals(other.area);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = underground ? 1 : 0;
+        result = 31 * result + floorTenths;
+        result = 31 * result + area.hashCode();
+        result = 31 * result + (int) (timestamp ^ (timestamp >>> 32));
+        result = 31 * result + (int) (version ^ (version >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ParkingRecord{" + encode() + "}";
+    }
+}
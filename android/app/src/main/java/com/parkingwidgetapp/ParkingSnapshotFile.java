@@ -0,0 +1,275 @@
+package com.parkingwidgetapp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+/**
+ * Small file holding the last committed {@link ParkingState} of every vehicle slot, so a cold
+ * process can render widgets without opening the AsyncStorage database.
+ *
+ * The whole file is read once with a single read and checked against a CRC. It is replaced
+ * atomically (temp file, fsync, rename), so readers see either the previous or the next
+ * snapshot, never a torn one. SQLite stays the source of truth: a missing or corrupt file reads
+ * as "unknown" for every slot and is rebuilt from the database. So whenever the file may be
+ * older than the database, from just before a commit until the write that follows it, after a
+ * failed write or a forgotten slot, it is deleted rather than left to vouch for a stale state
+ * on the next cold start.
+ *
+ * Layout: magic, format version, slot count, then one entry per slot (kind byte followed by
+ * its fields, always including the slot version) and a CRC32 of everything before it.
+ *
+ * Pure Java so it can be unit tested without Android.
+ */
+public final class ParkingSnapshotFile {
+
+    static final int MAGIC = 0x50534e50; // "PSNP"
+    // 2 added the version of empty and legacy entries
+    static final int FORMAT_VERSION = 2;
+
+    // Entry kinds
+    private static final byte UNKNOWN = 0;
+    private static final byte EMPTY = 1;
+    private static final byte RECORD = 2;
+    // A location React Native wrote that couldn't be migrated to a record
+    private static final byte LEGACY = 3;
+
+    // Far above a real snapshot, guards against reading a foreign file into memory
+    private static final int MAX_FILE_SIZE = 64 * 1024;
+
+    private final File file;
+    private final File tempFile;
+
+    // States readers may use, null where unknown; guarded by this
+    private ParkingState[] states;
+    // States in the file as last read or written, kept as a fallback when the database fails
+    private ParkingState[] persisted;
+    // Bumped by forget(), a write that started before must not bring the forgotten state back
+    private int generation;
+
+    public ParkingSnapshotFile(File file) {
+        this.file = file;
+        this.tempFile = new File(file.getPath() + ".tmp");
+    }
+
+    // State of a slot, or null if the snapshot doesn't know it
+    public synchronized ParkingState get(int slot) {
+        ensureLoaded();
+        return states[slot];
+    }
+
+    // State of a slot as last persisted, even if it was forgotten since
+    public synchronized ParkingState getPersisted(int slot) {
+        ensureLoaded();
+        return persisted[slot];
+    }
+
+    // Records the committed state of a slot, write() persists it
+    public synchronized void put(int slot, ParkingState state) {
+        ensureLoaded();
+        states[slot] = state != null ? state : ParkingState.EMPTY;
+    }
+
+    // Records a state read back from the database, unless a newer one was put in the meantime
+    public synchronized boolean putIfUnknown(int slot, ParkingState state) {
+        ensureLoaded();
+        if (states[slot] != null) {
+            return false;
+        }
+        states[slot] = state;
+        return true;
+    }
+
+    // Stops trusting a slot, e.g. after React Native wrote the database directly. The file stops
+    // vouching for it too; deleting it is a single unlink, the next write stores what is still known
+    public synchronized void forget(int slot) {
+        ensureLoaded();
+        states[slot] = null;
+        generation++;
+        if (persisted[slot] != null) {
+            file.delete();
+        }
+    }
+
+    // Called before a slot is committed to the database. Until write() stores the new state the
+    // file would vouch for the old one, even after a crash, so it is deleted if it knows the slot
+    public synchronized void beginCommit(int slot) {
+        ensureLoaded();
+        if (persisted[slot] != null) {
+            file.delete();
+        }
+    }
+
+    // Replaces the file with the current states; callers serialize writes on one thread.
+    // If that fails the file is deleted, it may be older than what was just committed
+    public void write() throws IOException {
+        ParkingState[] snapshot;
+        int startGeneration;
+        synchronized (this) {
+            ensureLoaded();
+            snapshot = states.clone();
+            startGeneration = generation;
+        }
+        byte[] data = encode(snapshot);
+
+        try {
+            FileOutputStream out = new FileOutputStream(tempFile);
+            try {
+                out.write(data);
+                out.flush();
+                // The rename below must not become visible before the data
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            discard();
+            throw e;
+        }
+
+        synchronized (this) {
+            if (generation != startGeneration) {
+                // A slot was forgotten in the meantime, this snapshot would vouch for it again
+                tempFile.delete();
+                return;
+            }
+            if (!tempFile.renameTo(file)) {
+                discard();
+                throw new IOException("Failed to replace " + file);
+            }
+            persisted = snapshot;
+        }
+    }
+
+    private void discard() {
+        tempFile.delete();
+        file.delete();
+    }
+
+    private void ensureLoaded() {
+        if (states != null) {
+            return;
+        }
+        ParkingState[] loaded = decode(readFile());
+        states = loaded;
+        persisted = loaded.clone();
+    }
+
+    // Whole file in one read, or null if it is missing or unreadable
+    private byte[] readFile() {
+        long length = file.length();
+        if (length <= 0 || length > MAX_FILE_SIZE) {
+            return null;
+        }
+        try {
+            FileInputStream in = new FileInputStream(file);
+            try {
+                byte[] data = new byte[(int) length];
+                int read = 0;
+                while (read < data.length) {
+                    int n = in.read(data, read, data.length - read);
+                    if (n < 0) {
+                        return null;
+                    }
+                    read += n;
+                }
+                return data;
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static byte[] encode(ParkingState[] states) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * states.length);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+            out.writeShort(states.length);
+            for (ParkingState state : states) {
+                if (state == null) {
+                    out.writeByte(UNKNOWN);
+                } else if (!state.hasLocation()) {
+                    out.writeByte(EMPTY);
+                    out.writeLong(state.getVersion());
+                } else if (state.getRecord() != null) {
+                    out.writeByte(RECORD);
+                    out.writeUTF(state.getRecord().encode());
+                    out.writeLong(state.getVersion());
+                } else {
+                    out.writeByte(LEGACY);
+                    out.writeUTF(state.getLocation());
+                    out.writeLong(state.getTimestamp());
+                    out.writeLong(state.getVersion());
+                }
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // Not thrown by in-memory streams
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // States of all slots, unknown for every slot if data is missing, corrupt or of another format
+    static ParkingState[] decode(byte[] data) {
+        ParkingState[] states = new ParkingState[VehicleSlots.MAX_SLOTS];
+        if (data == null || data.length < 12) {
+            return states;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        int stored = ((data[data.length - 4] & 0xff) << 24) | ((data[data.length - 3] & 0xff) << 16)
+            | ((data[data.length - 2] & 0xff) << 8) | (data[data.length - 1] & 0xff);
+        if (stored != (int) crc.getValue()) {
+            return states;
+        }
+
+        ParkingState[] decoded = new ParkingState[VehicleSlots.MAX_SLOTS];
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 4));
+            if (in.readInt() != MAGIC || in.readUnsignedShort() != FORMAT_VERSION) {
+                return states;
+            }
+            int count = in.readUnsignedShort();
+            for (int slot = 0; slot < count; slot++) {
+                ParkingState state;
+                byte kind = in.readByte();
+                if (kind == UNKNOWN) {
+                    state = null;
+                } else if (kind == EMPTY) {
+                    state = ParkingState.empty(in.readLong());
+                } else if (kind == RECORD) {
+                    ParkingRecord record = ParkingRecord.decode(in.readUTF());
+                    long version = in.readLong();
+                    state = record != null
+                        ? new ParkingState(record.toLocationString(), record.getTimestamp(), record, version)
+                        : null;
+                } else if (kind == LEGACY) {
+                    state = new ParkingState(in.readUTF(), in.readLong(), null, in.readLong());
+                } else {
+                    return states;
+                }
+                if (slot < decoded.length) {
+                    decoded[slot] = state;
+                }
+            }
+        } catch (IOException e) {
+            return states;
+        }
+        return decoded;
+    }
+}
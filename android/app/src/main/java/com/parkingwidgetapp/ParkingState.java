@@ -0,0 +1,67 @@
+package com.parkingwidgetapp;
+
+/**
+ * Immutable snapshot of the saved parking location.
+ * Shared between widgets, the input dialog and the React Native module.
+ * The version grows with every committed write of a slot, deletes included.
+ */
+public final class ParkingState {
+
+    public static final ParkingState EMPTY = new ParkingState(null, 0);
+
+    private final String location;
+    private final long timestamp;
+    private final ParkingRecord record;
+    private final long version;
+
+    public ParkingState(String location, long timestamp) {
+        this(location, timestamp, null);
+    }
+
+    public ParkingState(String location, long timestamp, ParkingRecord record) {
+        this(location, timestamp, record, record != null ? record.getVersion() : 0);
+    }
+
+    public ParkingState(String location, long timestamp, ParkingRecord record, long version) {
+        this.location = location;
+        this.timestamp = timestamp;
+        this.record = record;
+        this.version = version;
+    }
+
+    public static ParkingState of(ParkingRecord record) {
+        return new ParkingState(record.toLocationString(), record.getTimestamp(), record);
+    }
+
+    // No saved location, e.g. after a delete that committed the given version
+    public static ParkingState empty(long version) {
+        return version == 0 ? EMPTY : new ParkingState(null, 0, null, version);
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    // Typed fields of the location, or null if the legacy string couldn't be migrated
+    public ParkingRecord getRecord() {
+        return record;
+    }
+
+    // 0 if unknown, e.g. for data written before versions were stored
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean hasLocation() {
+        return location != null && !location.trim().isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ParkingState{location=" + location + ", timestamp=" + timestamp + ", record=" + record + ", version=" + version + "}";
+    }
+}
@@ -0,0 +1,123 @@
+package com.parkingwidgetapp;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+
+/**
+ * Process-wide cache of the current {@link ParkingState} of every vehicle slot.
+ * A slot is read once and swapped atomically whenever it is written, so widget refreshes
+ * and bridge calls do not have to reopen the database. Reads are lock-free and a slot never
+ * goes back to an older version, see {@link ParkingStateSlots}. A cold process reads the slot from
+ * {@link ParkingSnapshotFile} and only falls back to AsyncStorage if the snapshot doesn't know it.
+ */
+public class ParkingStateCache {
+    private static final String TAG = "ParkingStateCache";
+
+    static final String SNAPSHOT_FILE_NAME = "parking_snapshot.bin";
+
+    private static volatile ParkingSnapshotFile snapshotFile;
+
+    private static final ParkingStateSlots current = new ParkingStateSlots(VehicleSlots.MAX_SLOTS);
+
+    // State of the default slot, the one React Native shows
+    public static ParkingState get(Context context) {
+        return get(context, VehicleSlots.DEFAULT_SLOT);
+    }
+
+    public static ParkingState get(Context context, int slot) {
+        ParkingState state = peekOrSnapshot(context, slot);
+        if (state != null) {
+            return state;
+        }
+
+        Context appContext = context.getApplicationContext();
+        ParkingSnapshotFile snapshot = getSnapshotFile(appContext);
+        ParkingState loaded = loadFromStorage(appContext, slot);
+        if (loaded == null) {
+            // Don't cache a failed read, the next caller will try again
+            return fallbackState(snapshot, slot);
+        }
+        // The snapshot was missing, corrupt or stale, store what the database says
+        if (snapshot.putIfUnknown(slot, loaded)) {
+            ParkingStorageWriter.writeSnapshot(appContext);
+        }
+        if (ParkingLocationRepository.needsMigration(loaded)) {
+            ParkingStorageWriter.migrate(appContext, slot);
+        }
+
+        // Another thread may have published a newer state in the meantime
+        return current.publish(slot, loaded);
+    }
+
+    // Returns the cached state of a slot without loading it, or null
+    public static ParkingState peek(int slot) {
+        return current.get(slot);
+    }
+
+    // Cached state of a slot, else the state in the snapshot file, or null if only the database
+    // knows it. Never opens the database, for callers that block the JS thread
+    public static ParkingState peekOrSnapshot(Context context, int slot) {
+        ParkingState state = current.get(slot);
+        if (state != null) {
+            return state;
+        }
+        ParkingState persisted = getSnapshotFile(context.getApplicationContext()).get(slot);
+        if (persisted == null) {
+            return null;
+        }
+        MetricsRegistry.SNAPSHOT_HITS.increment();
+        return current.publish(slot, persisted);
+    }
+
+    // Publishes a committed state, ignored if a newer version is already cached
+    public static void put(int slot, ParkingState state) {
+        current.publish(slot, state != null ? state : ParkingState.EMPTY);
+        Log.d(TAG, "Parking state of slot " + slot + " updated: " + state);
+    }
+
+    // Drop the cached state of a slot, e.g. after React Native wrote AsyncStorage directly.
+    // The snapshot stops vouching for it too, the next read goes to the database
+    public static void invalidate(int slot) {
+        current.clear(slot);
+        ParkingSnapshotFile snapshot = snapshotFile;
+        if (snapshot != null) {
+            snapshot.forget(slot);
+        }
+    }
+
+    static ParkingSnapshotFile getSnapshotFile(Context context) {
+        if (snapshotFile == null) {
+            synchronized (ParkingStateCache.class) {
+                if (snapshotFile == null) {
+                    snapshotFile = new ParkingSnapshotFile(
+                        new File(context.getApplicationContext().getFilesDir(), SNAPSHOT_FILE_NAME));
+                }
+            }
+        }
+        return snapshotFile;
+    }
+
+    private static ParkingState loadFromStorage(Context context, int slot) {
+        long start = System.nanoTime();
+        MetricsRegistry.STORAGE_READS.increment();
+        try {
+            ParkingState state = ParkingLocationRepository.getInstance(context).read(slot);
+            Log.d(TAG, "Loaded slot " + slot + ": " + state);
+            return state;
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading from AsyncStorage: " + e.getMessage());
+            MetricsRegistry.STORAGE_READ_FALLBACKS.increment();
+            return null;
+        } finally {
+            MetricsRegistry.STORAGE_READ_US.record(MetricsRegistry.elapsedMicros(start));
+        }
+    }
+
+    // Last state written to the snapshot, it may be older than the database but is better than nothing
+    private static ParkingState fallbackState(ParkingSnapshotFile snapshot, int slot) {
+        ParkingState persisted = snapshot.getPersisted(slot);
+        return persisted != null ? persisted : ParkingState.EMPTY;
+    }
+}
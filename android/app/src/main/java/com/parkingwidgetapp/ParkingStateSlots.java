@@ -0,0 +1,44 @@
+package com.parkingwidgetapp;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free holder of the current {@link ParkingState} of every vehicle slot.
+ *
+ * A state only ever replaces one with a lower version, so a slow reader publishing what it
+ * loaded can't put an older state back over a newer commit, and readers never see a slot go
+ * back in time. A slot without a state (null) accepts any state.
+ *
+ * Pure Java so it can be unit tested without Android.
+ */
+public final class ParkingStateSlots {
+
+    private final AtomicReferenceArray<ParkingState> states;
+
+    public ParkingStateSlots(int slotCount) {
+        states = new AtomicReferenceArray<>(slotCount);
+    }
+
+    // Current state of a slot, or null if none was published
+    public ParkingState get(int slot) {
+        return states.get(slot);
+    }
+
+    // Installs state unless the slot already holds the same or a newer version, returns what the slot holds
+    public ParkingState publish(int slot, ParkingState state) {
+        while (true) {
+            ParkingState current = states.get(slot);
+            if (current != null && current.getVersion() >= state.getVersion()) {
+                return current;
+            }
+            if (states.compareAndSet(slot, current, state)) {
+                return state;
+            }
+        }
+    }
+
+    // Forgets a slot, the next publish installs whatever was read
+    public void clear(int slot) {
+        states.set(slot, null);
+    }
+}
@@ -0,0 +1,380 @@
+package com.parkingwidgetapp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running aggregates over the parking history: most-used floors and areas and
+ * how long the car stays parked. Every event updates the aggregates in constant time
+ * and publishes an immutable {@link Snapshot}, so reads never recompute anything.
+ *
+ * Not thread-safe for writers; events are applied on the storage writer thread.
+ */
+public final class ParkingStatistics {
+
+    private static final int FORMAT_VERSION = 1;
+
+    static final int TOP_COUNT = 5;
+    // Hard cap on distinct areas kept, the least used one is dropped first
+    static final int MAX_TRACKED_AREAS = 64;
+
+    private static final long MINUTE_MS = 60L * 1000;
+
+    // Upper bounds of the duration histogram buckets, the last bucket is open-ended
+    private static final long[] DURATION_BUCKET_BOUNDS_MS = {
+        5 * MINUTE_MS, 10 * MINUTE_MS, 15 * MINUTE_MS, 30 * MINUTE_MS, 45 * MINUTE_MS,
+        60 * MINUTE_MS, 90 * MINUTE_MS, 120 * MINUTE_MS, 180 * MINUTE_MS, 240 * MINUTE_MS,
+        360 * MINUTE_MS, 480 * MINUTE_MS, 600 * MINUTE_MS, 720 * MINUTE_MS, 960 * MINUTE_MS,
+        1440 * MINUTE_MS, 2160 * MINUTE_MS, 2880 * MINUTE_MS, 4320 * MINUTE_MS, 7200 * MINUTE_MS,
+        10080 * MINUTE_MS
+    };
+
+    private final Map<Integer, Integer> floorCounts = new HashMap<>();
+    private final Map<String, Integer> areaCounts = new HashMap<>();
+    private final long[] durationBuckets = new long[DURATION_BUCKET_BOUNDS_MS.length + 1];
+
+    private final int[] topFloorKeys = new int[TOP_COUNT];
+    private final int[] topFloorCounts = new int[TOP_COUNT];
+    private int topFloorSize;
+    private final String[] topAreas = new String[TOP_COUNT];
+    private final int[] topAreaCounts = new int[TOP_COUNT];
+    private int topAreaSize;
+
+    private long saveCount;
+    private long deleteCount;
+    private long durationCount;
+    private double durationMean;
+    private long durationMax;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // A location was saved, previous is the state it replaced (may be empty)
+    public void onSave(ParkingRecord record, ParkingState previous) {
+        saveCount++;
+        if (previous != null && previous.hasLocation() && previous.getTimestamp() > 0) {
+            // Saving a new spot ends the previous stay
+            addDuration(record.getTimestamp() - previous.getTimestamp());
+        }
+
+        int floorKey = floorKey(record.isUnderground(), record.getFloorTenths());
+        int floorCount = increment(floorCounts, floorKey);
+        updateTopFloors(floorKey, floorCount);
+
+        String area = record.getArea();
+        if (!area.isEmpty()) {
+            if (!areaCounts.containsKey(area) && areaCounts.size() >= MAX_TRACKED_AREAS) {
+                evictLeastUsedArea();
+            }
+            int areaCount = increment(areaCounts, area);
+            updateTopAreas(area, areaCount);
+        }
+
+        publish();
+    }
+
+    // The saved location was deleted at the given time, ending the stay
+    public void onDelete(ParkingState previous, long deletedAt) {
+        deleteCount++;
+        if (previous != null && previous.hasLocation() && previous.getTimestamp() > 0) {
+            addDuration(deletedAt - previous.getTimestamp());
+        }
+        publish();
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private void addDuration(long durationMs) {
+        if (durationMs <= 0) {
+            return;
+        }
+        durationCount++;
+        // Running mean without keeping the samples
+        durationMean += (durationMs - durationMean) / durationCount;
+        durationMax = Math.max(durationMax, durationMs);
+        durationBuckets[bucketOf(durationMs)]++;
+    }
+
+    private static int bucketOf(long durationMs) {
+        for (int i = 0; i < DURATION_BUCKET_BOUNDS_MS.length; i++) {
+            if (durationMs <= DURATION_BUCKET_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return DURATION_BUCKET_BOUNDS_MS.length;
+    }
+
+    // Estimates a percentile by interpolating inside the histogram bucket it falls in
+    private long percentile(double fraction) {
+        if (durationCount == 0) {
+            return 0;
+        }
+        double rank = fraction * durationCount;
+        long seen = 0;
+        for (int i = 0; i < durationBuckets.length; i++) {
+            long inBucket = durationBuckets[i];
+            if (inBucket > 0 && seen + inBucket >= rank) {
+                long lower = i == 0 ? 0 : DURATION_BUCKET_BOUNDS_MS[i - 1];
+                long upper = i < DURATION_BUCKET_BOUNDS_MS.length
+                    ? Math.min(DURATION_BUCKET_BOUNDS_MS[i], durationMax)
+                    : durationMax;
+                double within = (rank - seen) / inBucket;
+                return lower + Math.round((upper - lower) * within);
+            }
+            seen += inBucket;
+        }
+        return durationMax;
+    }
+
+    private void updateTopFloors(int floorKey, int count) {
+        topFloorSize = updateTop(topFloorKeys, null, topFloorCounts, topFloorSize, floorKey, null, count);
+    }
+
+    private void updateTopAreas(String area, int count) {
+        topAreaSize = updateTop(null, topAreas, topAreaCounts, topAreaSize, 0, area, count);
+    }
+
+    // Keeps a small array sorted by count; counts only grow, so a single bubble-up is enough
+    private static int updateTop(int[] intKeys, String[] stringKeys, int[] counts, int size,
+                                 int intKey, String stringKey, int count) {
+        int index = -1;
+        for (int i = 0; i < size; i++) {
+            if (intKeys != null ? intKeys[i] == intKey : stringKeys[i].equals(stringKey)) {
+                index = i;
+                break;
+            }
+        }
+
+        if (index < 0) {
+            if (size < counts.length) {
+                index = size++;
+            } else if (count > counts[size - 1]) {
+                index = size - 1;
+            } else {
+                return size;
+            }
+            if (intKeys != null) {
+                intKeys[index] = intKey;
+            } else {
+                stringKeys[index] = stringKey;
+            }
+        }
+        counts[index] = count;
+
+        while (index > 0 && counts[index] > counts[index - 1]) {
+            swap(counts, index, index - 1);
+            if (intKeys != null) {
+                swap(intKeys, index, index - 1);
+            } else {
+                String tmp = stringKeys[index];
+                stringKeys[index] = stringKeys[index - 1];
+                stringKeys[index - 1] = tmp;
+            }
+            index--;
+        }
+        return size;
+    }
+
+    private void evictLeastUsedArea() {
+        String leastUsed = null;
+        int leastCount = Integer.MAX_VALUE;
+        for (Map.Entry<String, Integer> entry : areaCounts.entrySet()) {
+            if (entry.getValue() < leastCount) {
+                leastUsed = entry.getKey();
+                leastCount = entry.getValue();
+            }
+        }
+        areaCounts.remove(leastUsed);
+
+        // Keep the top list consistent with the tracked areas
+        for (int i = 0; i < topAreaSize; i++) {
+            if (topAreas[i].equals(leastUsed)) {
+                System.arraycopy(topAreas, i + 1, topAreas, i, topAreaSize - i - 1);
+                System.arraycopy(topAreaCounts, i + 1, topAreaCounts, i, topAreaSize - i - 1);
+                topAreas[--topAreaSize] = null;
+                break;
+            }
+        }
+    }
+
+    private void publish() {
+        int[] floorKeys = new int[topFloorSize];
+        int[] floorCountsCopy = new int[topFloorSize];
+        System.arraycopy(topFloorKeys, 0, floorKeys, 0, topFloorSize);
+        System.arraycopy(topFloorCounts, 0, floorCountsCopy, 0, topFloorSize);
+
+        String[] areas = new String[topAreaSize];
+        int[] areaCountsCopy = new int[topAreaSize];
+        System.arraycopy(topAreas, 0, areas, 0, topAreaSize);
+        System.arraycopy(topAreaCounts, 0, areaCountsCopy, 0, topAreaSize);
+
+        snapshot = new Snapshot(saveCount, deleteCount, durationCount, Math.round(durationMean),
+                                percentile(0.5), percentile(0.9),
+                                floorKeys, floorCountsCopy, areas, areaCountsCopy);
+    }
+
+    static int floorKey(boolean underground, int floorTenths) {
+        return floorTenths * 2 + (underground ? 1 : 0);
+    }
+
+    private static <K> int increment(Map<K, Integer> counts, K key) {
+        Integer count = counts.get(key);
+        int updated = count == null ? 1 : count + 1;
+        counts.put(key, updated);
+        return updated;
+    }
+
+    private static void swap(int[] values, int a, int b) {
+        int tmp = values[a];
+        values[a] = values[b];
+        values[b] = tmp;
+    }
+
+    public byte[] encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(saveCount);
+            out.writeLong(deleteCount);
+            out.writeLong(durationCount);
+            out.writeDouble(durationMean);
+            out.writeLong(durationMax);
+            out.writeInt(durationBuckets.length);
+            for (long bucket : durationBuckets) {
+                out.writeLong(bucket);
+            }
+            out.writeInt(floorCounts.size());
+            for (Map.Entry<Integer, Integer> entry : floorCounts.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+            out.writeInt(areaCounts.size());
+            for (Map.Entry<String, Integer> entry : areaCounts.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // Can't happen with an in-memory stream
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Restores encoded aggregates, or returns empty statistics if the data is unusable
+    public static ParkingStatistics decode(byte[] data) {
+        ParkingStatistics stats = new ParkingStatistics();
+        if (data == null || data.length == 0) {
+            return stats;
+        }
+
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (in.readInt() != FORMAT_VERSION) {
+                return new ParkingStatistics();
+            }
+            stats.saveCount = in.readLong();
+            stats.deleteCount = in.readLong();
+            stats.durationCount = in.readLong();
+            stats.durationMean = in.readDouble();
+            stats.durationMax = in.readLong();
+            int buckets = in.readInt();
+            if (buckets != stats.durationBuckets.length) {
+                return new ParkingStatistics();
+            }
+            for (int i = 0; i < buckets; i++) {
+                stats.durationBuckets[i] = in.readLong();
+            }
+            int floors = in.readInt();
+            for (int i = 0; i < floors; i++) {
+                int key = in.readInt();
+                int count = in.readInt();
+                stats.floorCounts.put(key, count);
+                stats.updateTopFloors(key, count);
+            }
+            int areas = in.readInt();
+            for (int i = 0; i < areas && i < MAX_TRACKED_AREAS; i++) {
+                String area = in.readUTF();
+                int count = in.readInt();
+                stats.areaCounts.put(area, count);
+                stats.updateTopAreas(area, count);
+            }
+        } catch (IOException e) {
+            return new ParkingStatistics();
+        }
+
+        stats.publish();
+        return stats;
+    }
+
+    /**
+     * Immutable view of the aggregates, safe to hand to any thread.
+     */
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0,
+            new int[0], new int[0], new String[0], new int[0]);
+
+        public final long saveCount;
+        public final long deleteCount;
+        public final long durationCount;
+        public final long meanDurationMs;
+        public final long medianDurationMs;
+        public final long p90DurationMs;
+
+        private final int[] topFloorKeys;
+        private final int[] topFloorCounts;
+        private final String[] topAreas;
+        private final int[] topAreaCounts;
+
+        Snapshot(long saveCount, long deleteCount, long durationCount, long meanDurationMs,
+                 long medianDurationMs, long p90DurationMs, int[] topFloorKeys, int[] topFloorCounts,
+                 String[] topAreas, int[] topAreaCounts) {
+            this.saveCount = saveCount;
+            this.deleteCount = deleteCount;
+            this.durationCount = durationCount;
+            this.meanDurationMs = meanDurationMs;
+            this.medianDurationMs = medianDurationMs;
+            this.p90DurationMs = p90DurationMs;
+            this.topFloorKeys = topFloorKeys;
+            this.topFloorCounts = topFloorCounts;
+            this.topAreas = topAreas;
+            this.topAreaCounts = topAreaCounts;
+        }
+
+        public int getTopFloorCount() {
+            return topFloorKeys.length;
+        }
+
+        public boolean isTopFloorUnderground(int index) {
+            return (topFloorKeys[index] & 1) == 1;
+        }
+
+        public int getTopFloorTenths(int index) {
+            return topFloorKeys[index] >> 1;
+        }
+
+        public int getTopFloorUses(int index) {
+            return topFloorCounts[index];
+        }
+
+        public int getTopAreaCount() {
+            return topAreas.length;
+        }
+
+        public String getTopArea(int index) {
+            return topAreas[index];
+        }
+
+        public int getTopAreaUses(int index) {
+            return topAreaCounts[index];
+        }
+    }
+}
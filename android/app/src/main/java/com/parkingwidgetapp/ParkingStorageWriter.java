@@ -0,0 +1,314 @@
+package com.parkingwidgetapp;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single background writer for the parking location.
+ * Writes are serialized on one thread; once a transaction has been committed the new
+ * state is published and {@link ParkingDataProvider} notifies widgets and React Native.
+ * Each write is a compare-and-set on the slot's version; if the cached state turns out to be
+ * stale, e.g. because React Native wrote AsyncStorage directly, the slot is read again and the
+ * write is retried on top of it.
+ */
+public class ParkingStorageWriter {
+    private static final String TAG = "ParkingStorageWriter";
+
+    public interface Callback {
+        // Called on the main thread after the write was committed
+        void onCommitted(ParkingState state);
+
+        // Called on the main thread if the write failed
+        void onError(Exception e);
+    }
+
+    public interface SuggestionsCallback {
+        // Called on the main thread with the best suggestions first
+        void onLoaded(List<ParkingRecord> suggestions);
+    }
+
+    public interface StatesCallback {
+        // Called on the main thread with the state of every vehicle slot
+        void onLoaded(ParkingState[] states);
+    }
+
+    // A conflict needs the database to change between two of our own reads, more than twice means a bug
+    static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static Handler writerHandler;
+
+    // Thread of all database access outside the bridge, also used to load state off the main thread
+    static synchronized Handler getWriterHandler() {
+        if (writerHandler == null) {
+            HandlerThread thread = new HandlerThread("ParkingWriter", Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            writerHandler = new Handler(thread.getLooper());
+        }
+        return writerHandler;
+    }
+
+    public static void save(Context context, final int slot, final ParkingRecord record, Callback callback) {
+        final Context appContext = context.getApplicationContext();
+        submit(appContext, slot, new Write() {
+            @Override
+            public ParkingState run(ParkingState previous) {
+                ParkingRecord versioned = record.withVersion(previous.getVersion() + 1);
+                ParkingLocationRepository.getInstance(appContext).save(slot, versioned, previous.getVersion());
+                MetricsRegistry.STORAGE_SAVES.increment();
+                recordSave(appContext, versioned, previous);
+                return ParkingState.of(versioned);
+            }
+        }, callback);
+    }
+
+    public static void delete(Context context, final int slot, Callback callback) {
+        final Context appContext = context.getApplicationContext();
+        submit(appContext, slot, new Write() {
+            @Override
+            public ParkingState run(ParkingState previous) {
+                long version = ParkingLocationRepository.getInstance(appContext).delete(slot, previous.getVersion());
+                MetricsRegistry.STORAGE_DELETES.increment();
+                recordDelete(appContext, previous);
+                return ParkingState.empty(version);
+            }
+        }, callback);
+    }
+
+    // Loads the default slot into ParkingStateCache off the main thread, so synchronous readers hit memory.
+    // Also loads the suggestions, which widgets only draw once they are in memory
+    public static void warmUp(Context context) {
+        final Context appContext = context.getApplicationContext();
+        getWriterHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                ParkingStateCache.get(appContext, VehicleSlots.DEFAULT_SLOT);
+                try {
+                    if (!ParkingHistoryStore.getInstance(appContext).getSuggestions().isEmpty()) {
+                        WidgetRefreshDispatcher.requestRefresh(appContext);
+                    }
+                } catch (Exception e) {
+                    Log.e(TAG, "Error loading suggestions: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    // Reads the suggestions off the main thread if they aren't in memory yet
+    public static void loadSuggestions(Context context, final SuggestionsCallback callback) {
+        final Context appContext = context.getApplicationContext();
+        getWriterHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                List<ParkingRecord> loaded;
+                try {
+                    loaded = ParkingHistoryStore.getInstance(appContext).getSuggestions();
+                } catch (Exception e) {
+                    Log.e(TAG, "Error loading suggestions: " + e.getMessage());
+                    loaded = Collections.emptyList();
+                }
+                final List<ParkingRecord> suggestions = loaded;
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onLoaded(suggestions);
+                    }
+                });
+            }
+        });
+    }
+
+    // Loads every slot into ParkingStateCache off the main thread
+    public static void loadStates(Context context, final StatesCallback callback) {
+        final Context appContext = context.getApplicationContext();
+        getWriterHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                final ParkingState[] states = new ParkingState[VehicleSlots.MAX_SLOTS];
+                for (int slot = 0; slot < states.length; slot++) {
+                    states[slot] = ParkingStateCache.get(appContext, slot);
+                }
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onLoaded(states);
+                    }
+                });
+            }
+        });
+    }
+
+    // Records a change React Native wrote to the default slot directly, previous may be null if unknown
+    public static void recordExternalChange(Context context, final ParkingState previous) {
+        final Context appContext = context.getApplicationContext();
+        getWriterHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                if (previous == null) {
+                    return;
+                }
+                ParkingState current = migrateNow(appContext, VehicleSlots.DEFAULT_SLOT);
+                if (current.hasLocation() && current.getRecord() != null
+                        && (!previous.hasLocation() || previous.getTimestamp() != current.getTimestamp())) {
+                    recordSave(appContext, current.getRecord(), previous);
+                } else if (!current.hasLocation() && previous.hasLocation()) {
+                    recordDelete(appContext, previous);
+                }
+            }
+        });
+    }
+
+    // Stores the record of a location React Native left in the legacy format. Readers only detect
+    // it, they may be on the main thread and must not write
+    static void migrate(Context context, final int slot) {
+        final Context appContext = context.getApplicationContext();
+        getWriterHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                // Queued by every reader that missed the cache, only the first one has work left
+                migrateNow(appContext, slot);
+            }
+        });
+    }
+
+    // Only called on the writer thread. Returns the current state of slot, migrated if it can be
+    private static ParkingState migrateNow(Context appContext, int slot) {
+        ParkingState state = ParkingStateCache.get(appContext, slot);
+        if (!ParkingLocationRepository.needsMigration(state)) {
+            return state;
+        }
+        ParkingState migrated;
+        try {
+            ParkingStateCache.getSnapshotFile(appContext).beginCommit(slot);
+            migrated = ParkingLocationRepository.getInstance(appContext).migrate(slot, state);
+        } catch (Exception e) {
+            // Detected again on the next read of the database
+            Log.w(TAG, "Skipped migration of slot " + slot + ": " + e.getMessage());
+            return state;
+        }
+        if (migrated == null) {
+            return state;
+        }
+
+        ParkingStateCache.put(slot, migrated);
+        ParkingDataProvider.notifyChange(appContext, slot);
+        ParkingStateCache.getSnapshotFile(appContext).put(slot, migrated);
+        persistSnapshot(appContext);
+        return migrated;
+    }
+
+    // Rewrites the snapshot file after a slot was read back from the database
+    static void writeSnapshot(Context context) {
+        final Context appContext = context.getApplicationContext();
+        getWriterHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                persistSnapshot(appContext);
+            }
+        });
+    }
+
+    // Only called on the writer thread, which keeps snapshot writes in commit order
+    private static void persistSnapshot(Context appContext) {
+        try {
+            ParkingStateCache.getSnapshotFile(appContext).write();
+        } catch (Exception e) {
+            // The database is still committed and the file is gone, it is rebuilt on the next cold read
+            Log.e(TAG, "Error writing parking snapshot: " + e.getMessage());
+            MetricsRegistry.SNAPSHOT_WRITE_FAILURES.increment();
+        }
+    }
+
+    private static void recordSave(Context appContext, ParkingRecord record, ParkingState previous) {
+        try {
+            ParkingHistoryStore.getInstance(appContext).recordSave(record, previous);
+        } catch (Exception e) {
+            // Statistics must never fail the save itself
+            Log.e(TAG, "Error recording save in history: " + e.getMessage());
+        }
+    }
+
+    private static void recordDelete(Context appContext, ParkingState previous) {
+        try {
+            ParkingHistoryStore.getInstance(appContext).recordDelete(previous, System.currentTimeMillis());
+        } catch (Exception e) {
+            Log.e(TAG, "Error recording delete in history: " + e.getMessage());
+        }
+    }
+
+    private interface Write {
+        // Commits on top of previous, the state the slot had when the write started
+        ParkingState run(ParkingState previous);
+    }
+
+    // Runs write until its version check passes, re-reading the slot after each conflict
+    private static ParkingState runVersioned(Context appContext, int slot, Write write) {
+        for (int attempt = 1; ; attempt++) {
+            // Writes are serialized on this thread, the cache is only stale if someone bypassed it
+            ParkingState previous = ParkingStateCache.get(appContext, slot);
+            try {
+                return write.run(previous);
+            } catch (ParkingLocationRepository.VersionConflictException e) {
+                MetricsRegistry.STORAGE_WRITE_CONFLICTS.increment();
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                Log.w(TAG, "Retrying write: " + e.getMessage());
+                ParkingStateCache.invalidate(slot);
+            }
+        }
+    }
+
+    private static void submit(final Context appContext, final int slot, final Write write,
+                               final Callback callback) {
+        getWriterHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                final ParkingState state;
+                long start = System.nanoTime();
+                try {
+                    // A crash after the commit must not leave the old state in the snapshot
+                    ParkingStateCache.getSnapshotFile(appContext).beginCommit(slot);
+                    state = runVersioned(appContext, slot, write);
+                } catch (final Exception e) {
+                    Log.e(TAG, "Error writing parking location: " + e.getMessage());
+                    MetricsRegistry.STORAGE_WRITE_FAILURES.increment();
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (callback != null) {
+                                callback.onError(e);
+                            }
+                        }
+                    });
+                    return;
+                }
+
+                MetricsRegistry.STORAGE_WRITE_US.record(MetricsRegistry.elapsedMicros(start));
+
+                // Publish the committed state before anyone is told about it
+                ParkingStateCache.put(slot, state);
+                ParkingDataProvider.notifyChange(appContext, slot);
+
+                ParkingStateCache.getSnapshotFile(appContext).put(slot, state);
+                persistSnapshot(appContext);
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (callback != null) {
+                            callback.onCommitted(state);
+                        }
+                    }
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package com.parkingwidgetapp;
+
+import android.os.Trace;
+
+/**
+ * android.os.Trace sections around the widget and dialog hot paths.
+ * Enable with `-PparkingTrace=true` (or parkingTrace=true in gradle.properties) and record
+ * a system trace; section names are the step names, e.g. "ParkingDialog.loadSavedLocation".
+ *
+ * ENABLED is a compile-time constant, so when tracing is off the calls only pass
+ * constant strings and are removed entirely by R8 in release builds.
+ */
+public final class ParkingTrace {
+
+    public static final boolean ENABLED = BuildConfig.PARKING_TRACE;
+
+    private ParkingTrace() {
+    }
+
+    // Must be paired with end() on the same thread, use try/finally
+    public static void begin(String section) {
+        if (ENABLED) {
+            Trace.beginSection(section);
+        }
+    }
+
+    public static void end() {
+        if (ENABLED) {
+            Trace.endSection();
+        }
+    }
+}
@@ -1,25 +1,22 @@
 package com.parkingwidgetapp;
 
-import android.appwidget.AppWidgetProvider;
-import android.appwidget.AppWidgetManager;
 import android.content.Context;
-import android.content.ComponentName;
 
-public class ParkingWidgetMediumProvider extends AppWidgetProvider {
+// Fixed medium layout, kept for widgets placed before ParkingWidgetProvider
+public class ParkingWidgetMediumProvider extends ParkingWidgetProvider {
 
     @Override
-    public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
-        ParkingWidgetUtil.updateWidget(context, appWidgetManager, appWidgetIds, 
-                                      R.layout.widget_parking_medium, "ParkingWidgetMedium");
-        // Initialize midnight scheduler when widget is updated
-        MidnightScheduler.initializeMidnightScheduler(context);
+    protected int getLayoutId() {
+        return R.layout.widget_parking_medium;
+    }
+
+    @Override
+    protected String getLogTag() {
+        return "ParkingWidgetMedium";
     }
 
     public static void updateAllWidgets(Context context) {
-        AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(context);
-        ComponentName componentName = new ComponentName(context, ParkingWidgetMediumProvider.class);
-        int[] appWidgetIds = appWidgetManager.getAppWidgetIds(componentName);
-        ParkingWidgetUtil.updateWidget(context, appWidgetManager, appWidgetIds, 
-                                      R.layout.widget_parking_medium, "ParkingWidgetMedium");
+        updateAllWidgets(context, ParkingWidgetMediumProvider.class, 
+                         R.layout.widget_parking_medium, "ParkingWidgetMedium");
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,260 @@
+package com.parkingwidgetapp;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.util.Log;
+
+/**
+ * Shared implementation of the legacy bridge module and the TurboModule.
+ * Both register under {@link #NAME}; the package decides which one React Native gets.
+ */
+class ParkingWidgetModuleImpl {
+    
+    static final String NAME = "ParkingWidgetModule";
+    
+    private static final String TAG = "ParkingWidgetModule";
+    
+    private final ReactApplicationContext reactContext;
+    
+    // Emits parkingDataChanged once per committed change of the slot React Native shows. Called
+    // on the writer thread like WidgetDataObserver, the change may need a database read
+    private final ContentObserver dataObserver = new ContentObserver(ParkingStorageWriter.getWriterHandler()) {
+        @Override
+        public void onChange(boolean selfChange, Uri uri) {
+            emitDataChangedEvent(createStateMap(ParkingStateCache.get(reactContext)));
+        }
+    };
+    
+    ParkingWidgetModuleImpl(ReactApplicationContext reactContext) {
+        this.reactContext = reactContext;
+    }
+    
+    void initialize() {
+        reactContext.getContentResolver().registerContentObserver(
+            ParkingDataProvider.slotUri(VehicleSlots.DEFAULT_SLOT), false, dataObserver);
+    }
+    
+    void invalidate() {
+        reactContext.getContentResolver().unregisterContentObserver(dataObserver);
+    }
+    
+    // Blocks the JS thread, so only served from memory or the snapshot file, which are warmed
+    // up when the application starts. Null if the database has to be read, the screen then
+    // falls back to getCurrentParkingLocation()
+    WritableMap getSnapshot() {
+        ParkingState state = ParkingStateCache.peekOrSnapshot(reactContext, VehicleSlots.DEFAULT_SLOT);
+        return state != null ? createStateMap(state) : null;
+    }
+    
+    // Same input rules as the widget dialog; React Native shows "층" next to the field, not in it
+    String formatFloorInput(String input) {
+        return FloorInputEngine.formatFloor(input, false);
+    }
+    
+    String formatAreaInput(String input) {
+        return FloorInputEngine.limitArea(input);
+    }
+    
+    void updateWidgets(Promise promise) {
+        try {
+            ReactApplicationContext context = reactContext;
+            
+            // AsyncStorage was written from JS, so the cached state of the default slot is stale
+            ParkingState previous = ParkingStateCache.peek(VehicleSlots.DEFAULT_SLOT);
+            ParkingStateCache.invalidate(VehicleSlots.DEFAULT_SLOT);
+            ParkingStorageWriter.recordExternalChange(context, previous);
+            
+            // Observers re-render the widgets showing that slot
+            ParkingDataProvider.notifyChange(context, VehicleSlots.DEFAULT_SLOT);
+            
+            Log.d(TAG, "Widget refresh requested from React Native");
+            promise.resolve("Widgets updated successfully");
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error updating widgets: " + e.getMessage());
+            promise.reject("ERROR", "Failed to update widgets: " + e.getMessage());
+        }
+    }
+    
+    // Saves location and timestamp of the default slot in one transaction, resolves with the stored state
+    void saveParkingLocation(String location, double timestamp, final Promise promise) {
+        // Same rules as the widget dialog, e.g. "지하 02층" is stored as "지하 2층"
+        String[] parts = ParkingLocationFormat.parse(location);
+        ParkingRecord record = null;
+        if (parts != null
+                && (ParkingLocationFormat.UNDERGROUND.equals(parts[ParkingLocationFormat.PART_FLOOR_TYPE])
+                    || ParkingLocationFormat.ABOVEGROUND.equals(parts[ParkingLocationFormat.PART_FLOOR_TYPE]))
+                && ParkingLocationFormat.validateFloorNumber(parts[ParkingLocationFormat.PART_FLOOR_NUMBER])
+                    == ParkingLocationFormat.FLOOR_OK) {
+            record = ParkingRecord.create(
+                ParkingLocationFormat.UNDERGROUND.equals(parts[ParkingLocationFormat.PART_FLOOR_TYPE]),
+                parts[ParkingLocationFormat.PART_FLOOR_NUMBER], parts[ParkingLocationFormat.PART_AREA],
+                (long) timestamp, 0);
+        }
+        if (record == null) {
+            promise.reject("INVALID_LOCATION", "Not a valid parking location: " + location);
+            return;
+        }
+        
+        ParkingStorageWriter.save(reactContext, VehicleSlots.DEFAULT_SLOT, record, new ParkingStorageWriter.Callback() {
+            @Override
+            public void onCommitted(ParkingState state) {
+                // The stored form, which may differ from what was typed
+                promise.resolve(createStateMap(state));
+            }
+            
+            @Override
+            public void onError(Exception e) {
+                promise.reject("ERROR", "Failed to save parking location: " + e.getMessage());
+            }
+        });
+    }
+    
+    // Deletes the default slot in one statement, resolves with the version after the delete
+    void clearParkingLocation(final Promise promise) {
+        ParkingStorageWriter.delete(reactContext, VehicleSlots.DEFAULT_SLOT, new ParkingStorageWriter.Callback() {
+            @Override
+            public void onCommitted(ParkingState state) {
+                promise.resolve((double) state.getVersion());
+            }
+            
+            @Override
+            public void onError(Exception e) {
+                promise.reject("ERROR", "Failed to clear parking location: " + e.getMessage());
+            }
+        });
+    }
+    
+    void getMetrics(Promise promise) {
+        WritableMap counters = Arguments.createMap();
+        for (MetricsRegistry.Counter counter : MetricsRegistry.getCounters()) {
+            counters.putDouble(counter.getName(), counter.get());
+        }
+        
+        WritableMap histograms = Arguments.createMap();
+        for (MetricsRegistry.Histogram histogram : MetricsRegistry.getHistograms()) {
+            MetricsRegistry.Histogram.Snapshot snapshot = histogram.snapshot();
+            WritableMap entry = Arguments.createMap();
+            entry.putDouble("count", snapshot.count);
+            entry.putDouble("mean", snapshot.getMean());
+            entry.putDouble("p50", snapshot.getPercentile(50));
+            entry.putDouble("p90", snapshot.getPercentile(90));
+            entry.putDouble("p99", snapshot.getPercentile(99));
+            entry.putDouble("max", snapshot.max);
+            histograms.putMap(histogram.getName(), entry);
+        }
+        
+        WritableMap result = Arguments.createMap();
+        result.putMap("counters", counters);
+        result.putMap("histograms", histograms);
+        promise.resolve(result);
+    }
+    
+    void getCurrentParkingLocation(Promise promise) {
+        try {
+            ReactApplicationContext context = reactContext;
+            promise.resolve(createStateMap(ParkingStateCache.get(context)));
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading parking location: " + e.getMessage());
+            promise.reject("ERROR", "Failed to read parking location: " + e.getMessage());
+        }
+    }
+    
+    void getParkingStatistics(Promise promise) {
+        try {
+            ParkingStatistics.Snapshot stats =
+                ParkingHistoryStore.getInstance(reactContext).getSnapshot();
+            
+            WritableMap result = Arguments.createMap();
+            result.putDouble("saveCount", stats.saveCount);
+            result.putDouble("deleteCount", stats.deleteCount);
+            result.putDouble("durationCount", stats.durationCount);
+            result.putDouble("meanDurationMs", stats.meanDurationMs);
+            result.putDouble("medianDurationMs", stats.medianDurationMs);
+            result.putDouble("p90DurationMs", stats.p90DurationMs);
+            
+            WritableArray floors = Arguments.createArray();
+            for (int i = 0; i < stats.getTopFloorCount(); i++) {
+                WritableMap floor = Arguments.createMap();
+                floor.putBoolean("underground", stats.isTopFloorUnderground(i));
+                floor.putString("floorNumber", ParkingRecord.formatFloorNumber(stats.getTopFloorTenths(i)));
+                floor.putInt("count", stats.getTopFloorUses(i));
+                floors.pushMap(floor);
+            }
+            result.putArray("topFloors", floors);
+            
+            WritableArray areas = Arguments.createArray();
+            for (int i = 0; i < stats.getTopAreaCount(); i++) {
+                WritableMap area = Arguments.createMap();
+                area.putString("area", stats.getTopArea(i));
+                area.putInt("count", stats.getTopAreaUses(i));
+                areas.pushMap(area);
+            }
+            result.putArray("topAreas", areas);
+            
+            promise.resolve(result);
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading parking statistics: " + e.getMessage());
+            promise.reject("ERROR", "Failed to read parking statistics: " + e.getMessage());
+        }
+    }
+    
+    void getSuggestions(Promise promise) {
+        try {
+            WritableArray result = Arguments.createArray();
+            for (ParkingRecord suggestion : ParkingHistoryStore.getInstance(reactContext).getSuggestions()) {
+                WritableMap entry = Arguments.createMap();
+                entry.putBoolean("underground", suggestion.isUnderground());
+                entry.putString("floorNumber", suggestion.getFloorNumber());
+                entry.putString("area", suggestion.getArea());
+                entry.putString("location", suggestion.toLocationString());
+                result.pushMap(entry);
+            }
+            promise.resolve(result);
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading suggestions: " + e.getMessage());
+            promise.reject("ERROR", "Failed to read suggestions: " + e.getMessage());
+        }
+    }
+    
+    private static WritableMap createStateMap(ParkingState state) {
+        WritableMap result = Arguments.createMap();
+        result.putString("location", state.getLocation());
+        result.putDouble("timestamp", state.getTimestamp());
+        // Lets JS drop a snapshot older than one it already shows
+        result.putDouble("version", state.getVersion());
+        
+        // Typed fields so JS doesn't have to split the location string
+        ParkingRecord record = state.getRecord();
+        if (record != null) {
+            result.putBoolean("underground", record.isUnderground());
+            result.putString("floorNumber", record.getFloorNumber());
+            result.putString("area", record.getArea());
+        }
+        return result;
+    }
+    
+    // Method to emit events to React Native when data changes
+    private void emitDataChangedEvent(WritableMap payload) {
+        try {
+            ReactApplicationContext context = reactContext;
+            if (context.hasActiveReactInstance()) {
+                context
+                    .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                    .emit("parkingDataChanged", payload);
+                Log.d(TAG, "Emitted parkingDataChanged event");
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error emitting data changed event: " + e.getMessage());
+        }
+    }
+}
@@ -1,25 +1,43 @@
 package com.parkingwidgetapp;
 
-import com.facebook.react.ReactPackage;
+import com.facebook.react.BaseReactPackage;
 import com.facebook.react.bridge.NativeModule;
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.uimanager.ViewManager;
+import com.facebook.react.module.model.ReactModuleInfo;
+import com.facebook.react.module.model.ReactModuleInfoProvider;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
-public class ParkingWidgetPackage implements ReactPackage {
+public class ParkingWidgetPackage extends BaseReactPackage {
     
     @Override
-    public List<ViewManager> createViewManagers(ReactApplicationContext reactContext) {
-        return Collections.emptyList();
+    public NativeModule getModule(String name, ReactApplicationContext reactContext) {
+        if (!ParkingWidgetModuleImpl.NAME.equals(name)) {
+            return null;
+        }
+        // Fall back to the bridge module when the new architecture is off
+        return BuildConfig.IS_NEW_ARCHITECTURE_ENABLED
+            ? new ParkingWidgetTurboModule(reactContext)
+            : new ParkingWidgetModule(reactContext);
     }
     
     @Override
-    public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
-        List<NativeModule> modules = new ArrayList<>();
-        modules.add(new ParkingWidgetModule(reactContext));
-        return modules;
+    public ReactModuleInfoProvider getReactModuleInfoProvider() {
+        final Map<String, ReactModuleInfo> moduleInfos = new HashMap<>();
+        moduleInfos.put(ParkingWidgetModuleImpl.NAME, new ReactModuleInfo(
+            ParkingWidgetModuleImpl.NAME,
+            ParkingWidgetModuleImpl.NAME,
+            false, // canOverrideExistingModule
+            false, // needsEagerInit
+            false, // isCxxModule
+            BuildConfig.IS_NEW_ARCHITECTURE_ENABLED // isTurboModule
+        ));
+        return new ReactModuleInfoProvider() {
+            @Override
+            public Map<String, ReactModuleInfo> getReactModuleInfos() {
+                return moduleInfos;
+            }
+        };
     }
-} 
\ No newline at end of file
+}
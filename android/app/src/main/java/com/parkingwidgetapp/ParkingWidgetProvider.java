@@ -0,0 +1,111 @@
+package com.parkingwidgetapp;
+
+import android.appwidget.AppWidgetProvider;
+import android.appwidget.AppWidgetManager;
+import android.content.Context;
+import android.os.Build;
+import android.os.Bundle;
+
+/**
+ * Responsive widget that can be resized between the medium, wide and square layouts.
+ * From API 31 one update carries a view tree per size and the launcher picks the one that
+ * fits, so resizing needs no round trip; before that the layout is chosen here whenever
+ * the launcher reports a new size.
+ *
+ * The fixed-size providers extend this class so widgets placed before it existed keep working.
+ *
+ * Cost compared to the fixed-size widgets: from API 31 a full update carries three view trees,
+ * but one update serves every responsive widget of a slot, since its intents name the slot
+ * instead of the widget. Before API 31 each widget gets its own tree and time-only changes
+ * stay partial updates, but every resize that crosses a layout boundary costs a full
+ * update of that widget, from {@link #onAppWidgetOptionsChanged}.
+ */
+public class ParkingWidgetProvider extends AppWidgetProvider {
+
+    @Override
+    public void onUpdate(Context context, final AppWidgetManager appWidgetManager, final int[] appWidgetIds) {
+        // Sent for added widgets too
+        WidgetRefreshDispatcher.forgetAppWidgetIds();
+        final Context appContext = context.getApplicationContext();
+        final int layoutId = getLayoutId();
+        final String logTag = getLogTag();
+        WidgetBroadcastExecutor.execute(this, "ParkingWidgetProvider.onUpdate", new Runnable() {
+            @Override
+            public void run() {
+                // The system only sends this when the host needs views, e.g. after a launcher restart,
+                // a restore or a re-add; what this process rendered before is gone from the host
+                ParkingWidgetUtil.forgetWidgets(appWidgetIds);
+                ParkingWidgetUtil.updateWidget(appContext, appWidgetManager, appWidgetIds, 
+                                              layoutId, logTag);
+                // Initialize midnight scheduler when widget is updated
+                MidnightScheduler.initializeMidnightScheduler(appContext);
+            }
+        });
+    }
+
+    @Override
+    public void onAppWidgetOptionsChanged(Context context, AppWidgetManager appWidgetManager,
+                                          final int appWidgetId, Bundle newOptions) {
+        // From API 31 the launcher already has a layout for every size
+        if (getLayoutId() != ParkingWidgetUtil.RESPONSIVE_LAYOUT
+                || Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            return;
+        }
+        if (ParkingWidgetUtil.onResponsiveWidgetResized(appWidgetId, newOptions)) {
+            final Context appContext = context.getApplicationContext();
+            WidgetBroadcastExecutor.execute(this, "ParkingWidgetProvider.onAppWidgetOptionsChanged", new Runnable() {
+                @Override
+                public void run() {
+                    WidgetRefreshDispatcher.refreshWidget(appContext, appWidgetId);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onDeleted(Context context, final int[] appWidgetIds) {
+        WidgetRefreshDispatcher.forgetAppWidgetIds();
+        ParkingWidgetUtil.forgetWidgets(appWidgetIds);
+        final Context appContext = context.getApplicationContext();
+        WidgetBroadcastExecutor.execute(this, "ParkingWidgetProvider.onDeleted", new Runnable() {
+            @Override
+            public void run() {
+                WidgetSlotBindings.unbind(appContext, appWidgetIds);
+            }
+        });
+    }
+
+    @Override
+    public void onRestored(Context context, int[] oldWidgetIds, int[] newWidgetIds) {
+        // Restored widgets get new ids, an onUpdate follows
+        WidgetRefreshDispatcher.forgetAppWidgetIds();
+    }
+
+    // Layout of this provider, or ParkingWidgetUtil.RESPONSIVE_LAYOUT to follow the widget's size
+    protected int getLayoutId() {
+        return ParkingWidgetUtil.RESPONSIVE_LAYOUT;
+    }
+
+    protected String getLogTag() {
+        return "ParkingWidget";
+    }
+
+    public static void updateAllWidgets(Context context) {
+        updateAllWidgets(context, ParkingWidgetProvider.class, ParkingWidgetUtil.RESPONSIVE_LAYOUT, "ParkingWidget");
+    }
+
+    // Renders on the render thread of WidgetBroadcastExecutor, inline if called there
+    static void updateAllWidgets(Context context, final Class<? extends ParkingWidgetProvider> provider,
+                                 final int layoutId, final String logTag) {
+        final Context appContext = context.getApplicationContext();
+        WidgetBroadcastExecutor.run("ParkingWidgetProvider.updateAllWidgets", new Runnable() {
+            @Override
+            public void run() {
+                AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(appContext);
+                int[] appWidgetIds = WidgetRefreshDispatcher.getAppWidgetIds(appContext, provider);
+                ParkingWidgetUtil.updateWidget(appContext, appWidgetManager, appWidgetIds,
+                                              layoutId, logTag);
+            }
+        });
+    }
+}
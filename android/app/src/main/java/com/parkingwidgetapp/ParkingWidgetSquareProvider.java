@@ -1,25 +1,22 @@
 package com.parkingwidgetapp;
 
-import android.appwidget.AppWidgetProvider;
-import android.appwidget.AppWidgetManager;
 import android.content.Context;
-import android.content.ComponentName;
 
-public class ParkingWidgetSquareProvider extends AppWidgetProvider {
+// Fixed square layout, kept for widgets placed before ParkingWidgetProvider
+public class ParkingWidgetSquareProvider extends ParkingWidgetProvider {
 
     @Override
-    public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
-        ParkingWidgetUtil.updateWidget(context, appWidgetManager, appWidgetIds, 
-                                      R.layout.widget_parking_square, "ParkingWidgetSquare");
-        // Initialize midnight scheduler when widget is updated
-        MidnightScheduler.initializeMidnightScheduler(context);
+    protected int getLayoutId() {
+        return R.layout.widget_parking_square;
+    }
+
+    @Override
+    protected String getLogTag() {
+        return "ParkingWidgetSquare";
     }
 
     public static void updateAllWidgets(Context context) {
-        AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(context);
-        ComponentName componentName = new ComponentName(context, ParkingWidgetSquareProvider.class);
-        int[] appWidgetIds = appWidgetManager.getAppWidgetIds(componentName);
-        ParkingWidgetUtil.updateWidget(context, appWidgetManager, appWidgetIds, 
-                                      R.layout.widget_parking_square, "ParkingWidgetSquare");
+        updateAllWidgets(context, ParkingWidgetSquareProvider.class, 
+                         R.layout.widget_parking_square, "ParkingWidgetSquare");
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package com.parkingwidgetapp;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.WritableMap;
+
+/**
+ * TurboModule implementation of the codegen spec in src/specs/NativeParkingWidget.ts.
+ * getSnapshot() is synchronous over JSI, so the screen can render the saved location
+ * on its first frame instead of waiting for a Promise.
+ */
+public class ParkingWidgetTurboModule extends NativeParkingWidgetSpec {
+    
+    private final ParkingWidgetModuleImpl impl;
+    
+    public ParkingWidgetTurboModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        impl = new ParkingWidgetModuleImpl(reactContext);
+    }
+    
+    @Override
+    public void initialize() {
+        super.initialize();
+        impl.initialize();
+    }
+    
+    @Override
+    public void invalidate() {
+        impl.invalidate();
+        super.invalidate();
+    }
+    
+    @Override
+    public WritableMap getSnapshot() {
+        return impl.getSnapshot();
+    }
+    
+    @Override
+    public String formatFloorInput(String input) {
+        return impl.formatFloorInput(input);
+    }
+    
+    @Override
+    public String formatAreaInput(String input) {
+        return impl.formatAreaInput(input);
+    }
+    
+    @Override
+    public void saveParkingLocation(String location, double timestamp, Promise promise) {
+        impl.saveParkingLocation(location, timestamp, promise);
+    }
+    
+    @Override
+    public void clearParkingLocation(Promise promise) {
+        impl.clearParkingLocation(promise);
+    }
+    
+    @Override
+    public void getMetrics(Promise promise) {
+        impl.getMetrics(promise);
+    }
+    
+    @Override
+    public void getCurrentParkingLocation(Promise promise) {
+        impl.getCurrentParkingLocation(promise);
+    }
+    
+    @Override
+    public void getParkingStatistics(Promise promise) {
+        impl.getParkingStatistics(promise);
+    }
+    
+    @Override
+    public void getSuggestions(Promise promise) {
+        impl.getSuggestions(promise);
+    }
+    
+    @Override
+    public void updateWidgets(Promise promise) {
+        impl.updateWidgets(promise);
+    }
+    
+    @Override
+    public void addListener(String eventName) {
+        // Events are emitted through RCTDeviceEventEmitter
+    }
+    
+    @Override
+    public void removeListeners(double count) {
+        // Events are emitted through RCTDeviceEventEmitter
+    }
+}
@@ -5,138 +5,324 @@ import android.content.Context;
 import android.widget.RemoteViews;
 import android.content.Intent;
 import android.app.PendingIntent;
-import android.database.sqlite.SQLiteDatabase;
-import android.database.Cursor;
-import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Bundle;
+import android.util.SizeF;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ParkingWidgetUtil {
     
+    // Passed as layoutId for ParkingWidgetProvider, whose layout follows the widget's size
+    public static final int RESPONSIVE_LAYOUT = 0;
+    
+    // Responsive layouts by the smallest size they need, in dp; the launcher picks the largest that fits
+    private static final int[] RESPONSIVE_LAYOUTS = {
+        R.layout.widget_parking_medium, R.layout.widget_parking_wide, R.layout.widget_parking_square
+    };
+    private static final float[][] RESPONSIVE_SIZES_DP = {
+        {110, 40}, {180, 40}, {110, 80}
+    };
+    
+    // Last content rendered per widget id, used to skip unchanged widgets. Only recorded by renders
+    // on the thread of WidgetBroadcastExecutor, so it always matches what was sent last
+    private static final SparseArray<WidgetRenderModel> renderedWidgets = new SparseArray<>();
+    // Click intent per widget id, guarded by renderedWidgets
+    private static final SparseArray<PendingIntent> clickPendingIntents = new SparseArray<>();
+    // Layout picked from the size of each responsive widget before API 31, guarded by renderedWidgets
+    private static final SparseIntArray responsiveLayouts = new SparseIntArray();
+    // Quick-action buttons in QuickSaveReceiver's order, only the wide layout has room for them
+    private static final int[] QUICK_ACTION_VIEW_IDS = {
+        R.id.quick_action_lower, R.id.quick_action_same, R.id.quick_action_upper
+    };
+    // Suggestion chips in QuickSaveReceiver's order, only the square layout has them
+    private static final int[] SUGGESTION_VIEW_IDS = {
+        R.id.suggestion_chip_1, R.id.suggestion_chip_2
+    };
+    
     public static void updateWidget(Context context, AppWidgetManager appWidgetManager, 
                                    int[] appWidgetIds, int layoutId, String logTag) {
-        String parkingLocation = null;
-        long savedTimestamp = 0;
-        
-        try {
-            // Read from AsyncStorage SQLite database
-            SQLiteDatabase db = SQLiteDatabase.openDatabase(
-                context.getDatabasePath("RKStorage").getPath(),
-                null,
-                SQLiteDatabase.OPEN_READONLY
-            );
-            
-            // Load parking location
-            Cursor cursor = db.query(
-                "catalystLocalStorage",
-                new String[]{"value"},
-                "key = ?",
-                new String[]{"parkingLocation"},
-                null,
-                null,
-                null
-            );
-            
-            if (cursor.moveToFirst()) {
-                parkingLocation = cursor.getString(0);
-                android.util.Log.d(logTag, logTag + " widget location: " + parkingLocation);
-            }
-            cursor.close();
-            
-            // Load timestamp
-            Cursor timestampCursor = db.query(
-                "catalystLocalStorage",
-                new String[]{"value"},
-                "key = ?",
-                new String[]{"parkingLocationTimestamp"},
-                null,
-                null,
-                null
-            );
-            
-            if (timestampCursor.moveToFirst()) {
-                savedTimestamp = Long.parseLong(timestampCursor.getString(0));
-                android.util.Log.d(logTag, logTag + " widget timestamp: " + savedTimestamp);
+        updateWidgetSlots(context, appWidgetManager, appWidgetIds, layoutId, logTag, VehicleSlots.ALL_SLOTS);
+    }
+    
+    // Renders the widgets in appWidgetIds that are bound to one of the slots in slotMask
+    public static void updateWidgetSlots(Context context, AppWidgetManager appWidgetManager,
+                                        int[] appWidgetIds, int layoutId, String logTag, int slotMask) {
+        for (int slot = 0; slot < VehicleSlots.MAX_SLOTS; slot++) {
+            if ((slotMask & VehicleSlots.maskOf(slot)) == 0) {
+                continue;
             }
-            timestampCursor.close();
-            
-            db.close();
-            
-        } catch (Exception e) {
-            android.util.Log.e(logTag, "Error reading from AsyncStorage: " + e.getMessage());
-            // Fallback to SharedPreferences
-            SharedPreferences prefs = context.getSharedPreferences("RCTAsyncLocalStorage", Context.MODE_PRIVATE);
-            parkingLocation = prefs.getString("parkingLocation", null);
-        }
-
-        for (int widgetId : appWidgetIds) {
-            RemoteViews views = new RemoteViews(context.getPackageName(), layoutId);
-            
-            // Display appropriate message based on data availability
-            String displayText = (parkingLocation != null && !parkingLocation.trim().isEmpty()) 
-                ? parkingLocation 
-                : "위치정보 없음";
-            views.setTextViewText(R.id.parking_text, displayText);
-
-            // Show timestamp or fallback text
-            boolean hasLocation = parkingLocation != null && !parkingLocation.trim().isEmpty() && savedTimestamp > 0;
-            if (hasLocation) {
-                String timeText = getRelativeTimeString(savedTimestamp);
-                views.setTextViewText(R.id.saved_time_text, timeText);
-            } else {
-                views.setTextViewText(R.id.saved_time_text, "터치하여 위치 입력");
+            int[] slotWidgetIds = WidgetSlotBindings.filter(context, appWidgetIds, slot);
+            if (slotWidgetIds.length > 0) {
+                updateWidget(context, appWidgetManager, slotWidgetIds, layoutId, logTag,
+                             slot, ParkingStateCache.get(context, slot));
             }
-            views.setViewVisibility(R.id.saved_time_text, android.view.View.VISIBLE);
-
-            // Add click functionality to open the dialog
-            Intent intent = new Intent(context, ParkingInputDialogActivity.class);
-            intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
-            PendingIntent pendingIntent = PendingIntent.getActivity(context, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-            views.setOnClickPendingIntent(R.id.widget, pendingIntent);
-
-            appWidgetManager.updateAppWidget(widgetId, views);
         }
     }
     
-    public static String getRelativeTimeString(long savedTimestamp) {
-        java.util.Calendar savedCal = java.util.Calendar.getInstance();
-        savedCal.setTimeInMillis(savedTimestamp);
-        
-        java.util.Calendar nowCal = java.util.Calendar.getInstance();
-        
-        // Check if it's today
-        boolean isToday = savedCal.get(java.util.Calendar.YEAR) == nowCal.get(java.util.Calendar.YEAR) &&
-                         savedCal.get(java.util.Calendar.DAY_OF_YEAR) == nowCal.get(java.util.Calendar.DAY_OF_YEAR);
+    // Renders the widgets in appWidgetIds, all bound to slot, with its state
+    public static void updateWidget(Context context, AppWidgetManager appWidgetManager, 
+                                   int[] appWidgetIds, int layoutId, String logTag,
+                                   int slot, ParkingState state) {
+        long start = System.nanoTime();
+        android.util.Log.d(logTag, logTag + " widget location: " + state.getLocation() + ", timestamp: " + state.getTimestamp());
         
-        // Check if it's yesterday
-        java.util.Calendar yesterdayCal = java.util.Calendar.getInstance();
-        yesterdayCal.add(java.util.Calendar.DAY_OF_YEAR, -1);
-        boolean isYesterday = savedCal.get(java.util.Calendar.YEAR) == yesterdayCal.get(java.util.Calendar.YEAR) &&
-                             savedCal.get(java.util.Calendar.DAY_OF_YEAR) == yesterdayCal.get(java.util.Calendar.DAY_OF_YEAR);
+        // Suggestions are drawn once ParkingStorageWriter.warmUp has loaded them, never read from disk here
+        WidgetRenderModel model = layoutId == R.layout.widget_parking_square || layoutId == RESPONSIVE_LAYOUT
+            ? WidgetRenderModel.create(layoutId, state, ParkingHistoryStore.getInstance(context).peekSuggestions(),
+                                       SUGGESTION_VIEW_IDS.length)
+            : WidgetRenderModel.create(layoutId, state);
+        int[] fullIds = new int[appWidgetIds.length];
+        int fullCount = 0;
+        int partialCount = 0;
+        // Partial views by layout, responsive widgets before API 31 may show different ones
+        SparseArray<RemoteViews> partialViews = null;
         
-        int hour = savedCal.get(java.util.Calendar.HOUR_OF_DAY);
-        int minute = savedCal.get(java.util.Calendar.MINUTE);
-        String amPm = hour < 12 ? "오전" : "오후";
-        int displayHour = hour == 0 ? 12 : (hour > 12 ? hour - 12 : hour);
+        synchronized (renderedWidgets) {
+            for (int widgetId : appWidgetIds) {
+                WidgetRenderModel previous = renderedWidgets.get(widgetId);
+                if (model.equals(previous)) {
+                    // Nothing changed for this widget
+                    continue;
+                }
+                
+                int shownLayoutId = getShownLayout(layoutId, widgetId);
+                if (shownLayoutId != RESPONSIVE_LAYOUT && model.differsOnlyInTimeText(previous)) {
+                    // Only the timestamp line changed, send just that
+                    if (partialViews == null) {
+                        partialViews = new SparseArray<>(1);
+                    }
+                    RemoteViews views = partialViews.get(shownLayoutId);
+                    if (views == null) {
+                        views = new RemoteViews(context.getPackageName(), shownLayoutId);
+                        views.setTextViewText(R.id.saved_time_text, model.getTimeText());
+                        partialViews.put(shownLayoutId, views);
+                    }
+                    ParkingTrace.begin("ParkingWidget.partiallyUpdateAppWidget");
+                    try {
+                        appWidgetManager.partiallyUpdateAppWidget(widgetId, views);
+                    } finally {
+                        ParkingTrace.end();
+                    }
+                    partialCount++;
+                } else {
+                    fullIds[fullCount++] = widgetId;
+                }
+                renderedWidgets.put(widgetId, model);
+            }
+        }
         
-        if (isToday) {
-            // For today: just show "오전 10:30 저장" format
-            return String.format("%s %d:%02d 저장", amPm, displayHour, minute);
+        if (fullCount > 0 && layoutId == RESPONSIVE_LAYOUT && Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            // One view tree per size, the launcher switches between them without asking us. Its
+            // intents name the slot rather than a widget, so one tree serves all widgets in one call
+            ParkingTrace.begin("ParkingWidget.buildRemoteViews");
+            RemoteViews views;
+            try {
+                Map<SizeF, RemoteViews> sizedViews = new HashMap<>();
+                for (int l = 0; l < RESPONSIVE_LAYOUTS.length; l++) {
+                    sizedViews.put(new SizeF(RESPONSIVE_SIZES_DP[l][0], RESPONSIVE_SIZES_DP[l][1]),
+                                   buildViews(context, RESPONSIVE_LAYOUTS[l], AppWidgetManager.INVALID_APPWIDGET_ID,
+                                              slot, model, state));
+                }
+                views = new RemoteViews(sizedViews);
+            } finally {
+                ParkingTrace.end();
+            }
+            
+            ParkingTrace.begin("ParkingWidget.updateAppWidget");
+            try {
+                appWidgetManager.updateAppWidget(fullCount == fullIds.length ? fullIds : Arrays.copyOf(fullIds, fullCount),
+                                                 views);
+            } finally {
+                ParkingTrace.end();
+            }
         } else {
-            String datePrefix;
-            if (isYesterday) {
-                datePrefix = "어제";
-            } else {
-                int month = savedCal.get(java.util.Calendar.MONTH) + 1;
-                int day = savedCal.get(java.util.Calendar.DAY_OF_MONTH);
-                int dayOfWeek = savedCal.get(java.util.Calendar.DAY_OF_WEEK);
+            for (int i = 0; i < fullCount; i++) {
+                // Each widget opens the dialog for itself, so every full update needs its own view tree
+                ParkingTrace.begin("ParkingWidget.buildRemoteViews");
+                RemoteViews views;
+                try {
+                    int viewsLayoutId = layoutId != RESPONSIVE_LAYOUT
+                        ? layoutId : getResponsiveLayout(appWidgetManager, fullIds[i]);
+                    views = buildViews(context, viewsLayoutId, fullIds[i], slot, model, state);
+                } finally {
+                    ParkingTrace.end();
+                }
                 
-                // Convert day of week to Korean
-                String[] koreanDays = {"", "일", "월", "화", "수", "목", "금", "토"};
-                String koreanDayOfWeek = koreanDays[dayOfWeek];
-                
-                datePrefix = String.format("%d월%d일(%s)", month, day, koreanDayOfWeek);
+                ParkingTrace.begin("ParkingWidget.updateAppWidget");
+                try {
+                    appWidgetManager.updateAppWidget(fullIds[i], views);
+                } finally {
+                    ParkingTrace.end();
+                }
+            }
+        }
+        
+        int unchangedCount = appWidgetIds.length - fullCount - partialCount;
+        MetricsRegistry.WIDGET_RENDERS.increment();
+        MetricsRegistry.WIDGET_FULL_UPDATES.add(fullCount);
+        MetricsRegistry.WIDGET_PARTIAL_UPDATES.add(partialCount);
+        MetricsRegistry.WIDGET_UNCHANGED.add(unchangedCount);
+        MetricsRegistry.WIDGET_RENDER_US.record(MetricsRegistry.elapsedMicros(start));
+        
+        android.util.Log.d(logTag, logTag + " render: " + fullCount + " full, " + partialCount + " partial, "
+            + unchangedCount + " unchanged");
+    }
+    
+    // Views whose intents target appWidgetId, or slot if it is INVALID_APPWIDGET_ID
+    private static RemoteViews buildViews(Context context, int layoutId, int appWidgetId, int slot,
+                                          WidgetRenderModel model, ParkingState state) {
+        RemoteViews views = new RemoteViews(context.getPackageName(), layoutId);
+        views.setTextViewText(R.id.parking_text, model.getParkingText());
+        views.setTextViewText(R.id.saved_time_text, model.getTimeText());
+        views.setViewVisibility(R.id.saved_time_text, android.view.View.VISIBLE);
+        
+        // Add click functionality to open the dialog
+        views.setOnClickPendingIntent(R.id.widget, getClickPendingIntent(context, appWidgetId, slot));
+        if (layoutId == R.layout.widget_parking_wide) {
+            bindQuickActions(context, views, appWidgetId, slot, state);
+        } else if (layoutId == R.layout.widget_parking_square) {
+            bindSuggestions(context, views, appWidgetId, slot, model.getSuggestions());
+        }
+        return views;
+    }
+    
+    // Layout a widget shows, RESPONSIVE_LAYOUT while that isn't a single known one
+    private static int getShownLayout(int layoutId, int appWidgetId) {
+        if (layoutId != RESPONSIVE_LAYOUT) {
+            return layoutId;
+        }
+        // From API 31 the launcher holds a tree per size and may show any of them
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            return RESPONSIVE_LAYOUT;
+        }
+        // Recorded by the last full update; a resize that changes it forces the next one
+        return responsiveLayouts.get(appWidgetId, RESPONSIVE_LAYOUT);
+    }
+    
+    // Before API 31 a responsive widget shows one layout, picked from the size the launcher reported
+    private static int getResponsiveLayout(AppWidgetManager appWidgetManager, int appWidgetId) {
+        synchronized (renderedWidgets) {
+            int layoutId = responsiveLayouts.get(appWidgetId, RESPONSIVE_LAYOUT);
+            if (layoutId != RESPONSIVE_LAYOUT) {
+                return layoutId;
+            }
+        }
+        int layoutId = pickResponsiveLayout(appWidgetManager.getAppWidgetOptions(appWidgetId));
+        synchronized (renderedWidgets) {
+            responsiveLayouts.put(appWidgetId, layoutId);
+        }
+        return layoutId;
+    }
+    
+    // Records a new size of a responsive widget, true if it now needs another layout
+    public static boolean onResponsiveWidgetResized(int appWidgetId, Bundle options) {
+        int layoutId = pickResponsiveLayout(options);
+        synchronized (renderedWidgets) {
+            if (responsiveLayouts.get(appWidgetId, RESPONSIVE_LAYOUT) == layoutId) {
+                return false;
+            }
+            responsiveLayouts.put(appWidgetId, layoutId);
+            renderedWidgets.delete(appWidgetId);
+            return true;
+        }
+    }
+    
+    // Largest layout whose minimum size fits; launchers report the portrait width as the minimum
+    // and the portrait height as the maximum
+    private static int pickResponsiveLayout(Bundle options) {
+        int width = options.getInt(AppWidgetManager.OPTION_APPWIDGET_MIN_WIDTH);
+        int height = options.getInt(AppWidgetManager.OPTION_APPWIDGET_MAX_HEIGHT);
+        int layoutId = RESPONSIVE_LAYOUTS[0];
+        for (int l = 1; l < RESPONSIVE_LAYOUTS.length; l++) {
+            if (width >= RESPONSIVE_SIZES_DP[l][0] && height >= RESPONSIVE_SIZES_DP[l][1]) {
+                layoutId = RESPONSIVE_LAYOUTS[l];
+            }
+        }
+        return layoutId;
+    }
+    
+    // Forget what was rendered for removed or rebound widgets, the next render is a full one
+    public static void forgetWidgets(int[] appWidgetIds) {
+        synchronized (renderedWidgets) {
+            for (int widgetId : appWidgetIds) {
+                renderedWidgets.delete(widgetId);
+                clickPendingIntents.delete(widgetId);
+                responsiveLayouts.delete(widgetId);
             }
-            
-            return String.format("%s %s %d:%02d", datePrefix, amPm, displayHour, minute);
         }
     }
-} 
\ No newline at end of file
+    
+    // Labels follow the saved floor, so they change whenever the location text does
+    private static void bindQuickActions(Context context, RemoteViews views, int appWidgetId, int slot,
+                                         ParkingState state) {
+        for (int i = 0; i < QUICK_ACTION_VIEW_IDS.length; i++) {
+            ParkingRecord floor = QuickSaveReceiver.getButtonFloor(state, i);
+            if (floor == null) {
+                views.setViewVisibility(QUICK_ACTION_VIEW_IDS[i], android.view.View.INVISIBLE);
+                continue;
+            }
+            views.setViewVisibility(QUICK_ACTION_VIEW_IDS[i], android.view.View.VISIBLE);
+            views.setTextViewText(QUICK_ACTION_VIEW_IDS[i],
+                ParkingLocationFormat.shortFloorLabel(floor.isUnderground(), floor.getFloorNumber()));
+            views.setOnClickPendingIntent(QUICK_ACTION_VIEW_IDS[i],
+                QuickSaveReceiver.createPendingIntent(context, appWidgetId, slot, QuickSaveReceiver.ACTIONS[i], floor));
+        }
+    }
+    
+    private static void bindSuggestions(Context context, RemoteViews views, int appWidgetId, int slot,
+                                        java.util.List<ParkingRecord> suggestions) {
+        views.setViewVisibility(R.id.suggestion_chips,
+            suggestions.isEmpty() ? android.view.View.GONE : android.view.View.VISIBLE);
+        for (int i = 0; i < SUGGESTION_VIEW_IDS.length; i++) {
+            if (i >= suggestions.size()) {
+                views.setViewVisibility(SUGGESTION_VIEW_IDS[i], android.view.View.GONE);
+                continue;
+            }
+            ParkingRecord suggestion = suggestions.get(i);
+            String label = ParkingLocationFormat.shortFloorLabel(suggestion.isUnderground(), suggestion.getFloorNumber());
+            if (!suggestion.getArea().isEmpty()) {
+                label += " " + suggestion.getArea();
+            }
+            views.setViewVisibility(SUGGESTION_VIEW_IDS[i], android.view.View.VISIBLE);
+            views.setTextViewText(SUGGESTION_VIEW_IDS[i], label);
+            views.setOnClickPendingIntent(SUGGESTION_VIEW_IDS[i],
+                QuickSaveReceiver.createPendingIntent(context, appWidgetId, slot,
+                                                      QuickSaveReceiver.SUGGESTION_ACTIONS[i], suggestion));
+        }
+    }
+    
+    private static PendingIntent getClickPendingIntent(Context context, int appWidgetId, int slot) {
+        if (appWidgetId == AppWidgetManager.INVALID_APPWIDGET_ID) {
+            // Shared views, built once per render of the slot
+            return createClickPendingIntent(context, appWidgetId, slot);
+        }
+        synchronized (renderedWidgets) {
+            PendingIntent pendingIntent = clickPendingIntents.get(appWidgetId);
+            if (pendingIntent == null) {
+                pendingIntent = createClickPendingIntent(context, appWidgetId, slot);
+                clickPendingIntents.put(appWidgetId, pendingIntent);
+            }
+            return pendingIntent;
+        }
+    }
+    
+    private static PendingIntent createClickPendingIntent(Context context, int appWidgetId, int slot) {
+        // The dialog looks up the slot bound to this widget when it opens
+        Intent intent = new Intent(context, ParkingInputDialogActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        WidgetSlotBindings.putTarget(intent, appWidgetId, slot);
+        // Request code keyed by the target so the widgets don't share one PendingIntent
+        return PendingIntent.getActivity(context.getApplicationContext(),
+            WidgetSlotBindings.requestCode(appWidgetId, slot), intent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+    
+    public static String getRelativeTimeString(long savedTimestamp) {
+        return RelativeTimeFormatter.getDefault().format(savedTimestamp);
+    }
+}
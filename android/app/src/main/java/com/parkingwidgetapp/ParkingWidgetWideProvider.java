@@ -1,25 +1,22 @@
 package com.parkingwidgetapp;
 
-import android.appwidget.AppWidgetProvider;
-import android.appwidget.AppWidgetManager;
 import android.content.Context;
-import android.content.ComponentName;
 
-public class ParkingWidgetWideProvider extends AppWidgetProvider {
+// Fixed wide layout, kept for widgets placed before ParkingWidgetProvider
+public class ParkingWidgetWideProvider extends ParkingWidgetProvider {
 
     @Override
-    public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
-        ParkingWidgetUtil.updateWidget(context, appWidgetManager, appWidgetIds, 
-                                      R.layout.widget_parking_wide, "ParkingWidgetWide");
-        // Initialize midnight scheduler when widget is updated
-        MidnightScheduler.initializeMidnightScheduler(context);
+    protected int getLayoutId() {
+        return R.layout.widget_parking_wide;
+    }
+
+    @Override
+    protected String getLogTag() {
+        return "ParkingWidgetWide";
     }
 
     public static void updateAllWidgets(Context context) {
-        AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(context);
-        ComponentName componentName = new ComponentName(context, ParkingWidgetWideProvider.class);
-        int[] appWidgetIds = appWidgetManager.getAppWidgetIds(componentName);
-        ParkingWidgetUtil.updateWidget(context, appWidgetManager, appWidgetIds, 
-                                      R.layout.widget_parking_wide, "ParkingWidgetWide");
+        updateAllWidgets(context, ParkingWidgetWideProvider.class, 
+                         R.layout.widget_parking_wide, "ParkingWidgetWide");
     }
-} 
\ No newline at end of file
+}
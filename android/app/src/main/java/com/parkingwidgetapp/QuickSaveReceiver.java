@@ -0,0 +1,98 @@
+package com.parkingwidgetapp;
+
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+/**
+ * Saves a location in one tap from the widget's quick-action buttons and suggestion chips,
+ * without opening the dialog. Each button carries the floor and area it shows, so a tap saves
+ * exactly what the user saw even if the stored location changed since the widget was drawn.
+ */
+public class QuickSaveReceiver extends BroadcastReceiver {
+    private static final String TAG = "QuickSaveReceiver";
+
+    // One action per button, so the buttons of a widget get separate PendingIntents
+    static final String[] ACTIONS = {
+        "com.parkingwidgetapp.QUICK_SAVE_LOWER",
+        "com.parkingwidgetapp.QUICK_SAVE_SAME",
+        "com.parkingwidgetapp.QUICK_SAVE_UPPER"
+    };
+    // Floor offset of each button from the last saved floor
+    static final int[] LEVEL_OFFSETS = {-1, 0, 1};
+    // One action per suggestion chip
+    static final String[] SUGGESTION_ACTIONS = {
+        "com.parkingwidgetapp.QUICK_SAVE_SUGGESTION_1",
+        "com.parkingwidgetapp.QUICK_SAVE_SUGGESTION_2"
+    };
+
+    private static final String EXTRA_UNDERGROUND = "underground";
+    private static final String EXTRA_FLOOR_TENTHS = "floor_tenths";
+    private static final String EXTRA_AREA = "area";
+
+    // Buttons are centered on 지하 2층 until something has been saved
+    private static final ParkingRecord DEFAULT_FLOOR = new ParkingRecord(true, 20, "", 0, 0);
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (!intent.hasExtra(EXTRA_FLOOR_TENTHS)) {
+            return;
+        }
+        int slot = WidgetSlotBindings.getSlot(context, intent);
+        boolean underground = intent.getBooleanExtra(EXTRA_UNDERGROUND, true);
+        int floorTenths = intent.getIntExtra(EXTRA_FLOOR_TENTHS, 0);
+        String area = intent.getStringExtra(EXTRA_AREA);
+
+        // Version is assigned by the writer
+        ParkingRecord record = new ParkingRecord(underground, floorTenths, area, System.currentTimeMillis(), 0);
+        Log.d(TAG, "Quick save of " + record.toLocationString() + " for slot " + slot);
+
+        // Keep the process alive until the write is committed and the widgets show it
+        final PendingResult pendingResult = goAsync();
+        final Context appContext = context.getApplicationContext();
+        ParkingStorageWriter.save(appContext, slot, record, new ParkingStorageWriter.Callback() {
+            @Override
+            public void onCommitted(ParkingState state) {
+                // Render in the background as well, the broadcast ends once that is done
+                WidgetBroadcastExecutor.execute(pendingResult, "QuickSaveReceiver.refresh", new Runnable() {
+                    @Override
+                    public void run() {
+                        WidgetRefreshDispatcher.refreshNow(appContext);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Quick save failed: " + e.getMessage());
+                if (pendingResult != null) {
+                    pendingResult.finish();
+                }
+            }
+        });
+    }
+
+    // Floor the button at index shows for the given state, or null if it would be past floor 99
+    static ParkingRecord getButtonFloor(ParkingState state, int index) {
+        ParkingRecord base = state.getRecord() != null ? state.getRecord() : DEFAULT_FLOOR;
+        return base.withFloorOffset(LEVEL_OFFSETS[index], 0);
+    }
+
+    // Broadcast saving the floor and area of target, keyed by widget id (or slot, see
+    // WidgetSlotBindings.putTarget) and button action
+    static PendingIntent createPendingIntent(Context context, int appWidgetId, int slot, String action,
+                                             ParkingRecord target) {
+        Intent intent = new Intent(context, QuickSaveReceiver.class);
+        intent.setAction(action);
+        WidgetSlotBindings.putTarget(intent, appWidgetId, slot);
+        intent.putExtra(EXTRA_UNDERGROUND, target.isUnderground());
+        intent.putExtra(EXTRA_FLOOR_TENTHS, target.getFloorTenths());
+        intent.putExtra(EXTRA_AREA, target.getArea());
+        // FLAG_UPDATE_CURRENT so a re-render replaces the location of the previous one
+        return PendingIntent.getBroadcast(context.getApplicationContext(),
+                                          WidgetSlotBindings.requestCode(appWidgetId, slot), intent,
+                                          PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+}
@@ -0,0 +1,152 @@
+package com.parkingwidgetapp;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Formats the saved time shown on widgets and in the input dialog, e.g.
+ * "오전 10:30 저장", "어제 오후 3:05" or "3월5일(수) 오전 9:00".
+ * Today's and yesterday's bounds are cached until the next midnight, and
+ * formatting writes into a reusable buffer without Calendar or Formatter allocations.
+ */
+public final class RelativeTimeFormatter {
+
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    private static final long MINUTE_MS = 60L * 1000;
+
+    // Indexed by day of week, 0 = Sunday
+    private static final char[] KOREAN_DAYS = {'일', '월', '화', '수', '목', '금', '토'};
+
+    private static final RelativeTimeFormatter DEFAULT = new RelativeTimeFormatter(null);
+
+    // Null means follow the device time zone
+    private final TimeZone fixedZone;
+    private final StringBuilder buffer = new StringBuilder(32);
+
+    private TimeZone zone;
+    private long yesterdayStart;
+    private long todayStart;
+    private long tomorrowStart;
+    private boolean boundsValid;
+
+    public RelativeTimeFormatter(TimeZone fixedZone) {
+        this.fixedZone = fixedZone;
+    }
+
+    public static RelativeTimeFormatter getDefault() {
+        return DEFAULT;
+    }
+
+    public String format(long savedTimestamp) {
+        return format(savedTimestamp, System.currentTimeMillis());
+    }
+
+    public synchronized String format(long savedTimestamp, long now) {
+        buffer.setLength(0);
+        appendTo(savedTimestamp, now, buffer);
+        return buffer.toString();
+    }
+
+    public synchronized void appendTo(long savedTimestamp, long now, StringBuilder out) {
+        ensureBounds(now);
+
+        long local = savedTimestamp + zone.getOffset(savedTimestamp);
+        long days = Math.floorDiv(local, DAY_MS);
+        int minuteOfDay = (int) (Math.floorMod(local, DAY_MS) / MINUTE_MS);
+        int hour = minuteOfDay / 60;
+        int minute = minuteOfDay % 60;
+
+        if (savedTimestamp >= todayStart && savedTimestamp < tomorrowStart) {
+            // For today: just show "오전 10:30 저장" format
+            appendTime(out, hour, minute);
+            out.append(" 저장");
+            return;
+        }
+
+        if (savedTimestamp >= yesterdayStart && savedTimestamp < todayStart) {
+            out.append("어제");
+        } else {
+            appendDate(out, days);
+        }
+        out.append(' ');
+        appendTime(out, hour, minute);
+    }
+
+    // Returns when the label for savedTimestamp will next change, or -1 if it never will
+    public synchronized long nextChangeAt(long savedTimestamp, long now) {
+        ensureBounds(now);
+
+        if (savedTimestamp >= yesterdayStart) {
+            // "오전 10:30 저장" becomes "어제 ..." and "어제 ..." becomes a date at the next midnight.
+            // Timestamps in the future are re-evaluated every midnight until they are today.
+            return tomorrowStart;
+        }
+
+        // Dates older than yesterday are shown as-is forever
+        return -1;
+    }
+
+    // Forget the cached day bounds, e.g. after the time or time zone changed
+    public synchronized void invalidate() {
+        boundsValid = false;
+    }
+
+    private void ensureBounds(long now) {
+        if (boundsValid && now >= todayStart && now < tomorrowStart) {
+            return;
+        }
+
+        zone = fixedZone != null ? fixedZone : TimeZone.getDefault();
+        Calendar cal = Calendar.getInstance(zone);
+        cal.setTimeInMillis(now);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        todayStart = cal.getTimeInMillis();
+
+        // Calendar arithmetic keeps the bounds right across DST changes
+        cal.add(Calendar.DAY_OF_YEAR, 1);
+        tomorrowStart = cal.getTimeInMillis();
+        cal.add(Calendar.DAY_OF_YEAR, -2);
+        yesterdayStart = cal.getTimeInMillis();
+
+        boundsValid = true;
+    }
+
+    private static void appendTime(StringBuilder out, int hour, int minute) {
+        int displayHour = hour == 0 ? 12 : (hour > 12 ? hour - 12 : hour);
+        out.append(hour < 12 ? "오전" : "오후")
+            .append(' ')
+            .append(displayHour)
+            .append(':');
+        if (minute < 10) {
+            out.append('0');
+        }
+        out.append(minute);
+    }
+
+    // Appends "M월D일(요일)" for the given days since the epoch in local time
+    private static void appendDate(StringBuilder out, long epochDay) {
+        // Civil date from day count (proleptic Gregorian calendar)
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+
+        // 1970-01-01 was a Thursday
+        int dayOfWeek = (int) Math.floorMod(epochDay + 4, 7L);
+
+        out.append(month)
+            .append('월')
+            .append(day)
+            .append('일')
+            .append('(')
+            .append(KOREAN_DAYS[dayOfWeek])
+            .append(')');
+    }
+}
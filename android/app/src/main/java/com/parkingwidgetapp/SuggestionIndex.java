@@ -0,0 +1,193 @@
+package com.parkingwidgetapp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Past floor and area combinations, ranked for the suggestion chips.
+ *
+ * Ranking uses forward decay: a save at time t adds 2^((t - landmark) / half-life)
+ * to its combination's weight, so one weight covers both how often and how recently a
+ * combination was used, and weights never have to be aged. Every save is a hash lookup
+ * plus, when the index is full, one pass over at most {@link #MAX_ENTRIES} entries.
+ *
+ * Not thread-safe for writers; saves are applied on the storage writer thread.
+ */
+public final class SuggestionIndex {
+
+    private static final int FORMAT_VERSION = 1;
+
+    // Hard cap on combinations kept, the lowest-weighted one is dropped first
+    static final int MAX_ENTRIES = 32;
+    static final int TOP_COUNT = 6;
+
+    // A use counts half as much after a week
+    static final long HALF_LIFE_MS = 7L * 24 * 60 * 60 * 1000;
+    // Rebase the landmark long before weights could overflow the persisted float
+    private static final double MAX_EXPONENT = 64;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long landmark;
+
+    private volatile List<ParkingRecord> top = Collections.emptyList();
+
+    // A location was saved, its floor and area become more likely suggestions
+    public void onSave(ParkingRecord record) {
+        long timestamp = record.getTimestamp();
+        if (entries.isEmpty()) {
+            landmark = timestamp;
+        }
+        double exponent = (double) (timestamp - landmark) / HALF_LIFE_MS;
+        if (exponent > MAX_EXPONENT) {
+            rebase(timestamp);
+            exponent = 0;
+        }
+
+        String key = record.toLocationString();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            if (entries.size() >= MAX_ENTRIES) {
+                evictLowestWeight();
+            }
+            entry = new Entry(record.isUnderground(), record.getFloorTenths(), record.getArea());
+            entries.put(key, entry);
+        }
+        entry.weight += Math.pow(2, exponent);
+        entry.lastUsed = Math.max(entry.lastUsed, timestamp);
+
+        publish();
+    }
+
+    // Best suggestions first, at most TOP_COUNT; timestamps are the last use, versions are 0
+    public List<ParkingRecord> getTop() {
+        return top;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    // Moves the landmark to the given time, scaling the weights to match
+    private void rebase(long newLandmark) {
+        double scale = Math.pow(2, -(double) (newLandmark - landmark) / HALF_LIFE_MS);
+        for (Entry entry : entries.values()) {
+            entry.weight *= scale;
+        }
+        landmark = newLandmark;
+    }
+
+    private void evictLowestWeight() {
+        String lowestKey = null;
+        Entry lowest = null;
+        for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+            if (lowest == null || ranksBelow(candidate.getValue(), lowest)) {
+                lowestKey = candidate.getKey();
+                lowest = candidate.getValue();
+            }
+        }
+        entries.remove(lowestKey);
+    }
+
+    private static boolean ranksBelow(Entry a, Entry b) {
+        return a.weight < b.weight || (a.weight == b.weight && a.lastUsed < b.lastUsed);
+    }
+
+    // Selects the top entries with an insertion sort into a TOP_COUNT-sized array
+    private void publish() {
+        Entry[] best = new Entry[TOP_COUNT];
+        int size = 0;
+        for (Entry entry : entries.values()) {
+            if (size == TOP_COUNT && !ranksBelow(best[size - 1], entry)) {
+                continue;
+            }
+            int index = size < TOP_COUNT ? size++ : size - 1;
+            while (index > 0 && ranksBelow(best[index - 1], entry)) {
+                best[index] = best[index - 1];
+                index--;
+            }
+            best[index] = entry;
+        }
+
+        List<ParkingRecord> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Entry entry = best[i];
+            records.add(new ParkingRecord(entry.underground, entry.floorTenths, entry.area, entry.lastUsed, 0));
+        }
+        top = Collections.unmodifiableList(records);
+    }
+
+    public byte[] encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(landmark);
+            out.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                // Floors fit in a short (at most 999 tenths), the sign bit holds underground
+                out.writeShort(entry.underground ? -entry.floorTenths - 1 : entry.floorTenths);
+                out.writeUTF(entry.area);
+                out.writeFloat((float) entry.weight);
+                out.writeLong(entry.lastUsed);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // Can't happen with an in-memory stream
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Restores an encoded index, or returns an empty one if the data is unusable
+    public static SuggestionIndex decode(byte[] data) {
+        SuggestionIndex index = new SuggestionIndex();
+        if (data == null || data.length == 0) {
+            return index;
+        }
+
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (in.readInt() != FORMAT_VERSION) {
+                return new SuggestionIndex();
+            }
+            index.landmark = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count && i < MAX_ENTRIES; i++) {
+                int floor = in.readShort();
+                boolean underground = floor < 0;
+                Entry entry = new Entry(underground, underground ? -floor - 1 : floor, in.readUTF());
+                entry.weight = in.readFloat();
+                entry.lastUsed = in.readLong();
+                index.entries.put(ParkingLocationFormat.combine(entry.underground,
+                    ParkingRecord.formatFloorNumber(entry.floorTenths), entry.area), entry);
+            }
+        } catch (IOException e) {
+            return new SuggestionIndex();
+        }
+
+        index.publish();
+        return index;
+    }
+
+    private static final class Entry {
+        final boolean underground;
+        final int floorTenths;
+        final String area;
+        double weight;
+        long lastUsed;
+
+        Entry(boolean underground, int floorTenths, String area) {
+            this.underground = underground;
+            this.floorTenths = floorTenths;
+            this.area = area;
+        }
+    }
+}
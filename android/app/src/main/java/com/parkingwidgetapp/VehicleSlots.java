@@ -0,0 +1,37 @@
+package com.parkingwidgetapp;
+
+/**
+ * Named vehicle slots, one saved parking location each.
+ * Slot 0 keeps the original AsyncStorage keys, so React Native and existing installs
+ * keep working unchanged; the other slots store the same keys with a "_<slot>" suffix.
+ */
+public final class VehicleSlots {
+
+    public static final int DEFAULT_SLOT = 0;
+    public static final int MAX_SLOTS = 3;
+
+    // Bit mask covering every slot, see maskOf()
+    public static final int ALL_SLOTS = (1 << MAX_SLOTS) - 1;
+
+    private static final String[] NAMES = {"차량 1", "차량 2", "차량 3"};
+
+    private VehicleSlots() {
+    }
+
+    public static boolean isValid(int slot) {
+        return slot >= 0 && slot < MAX_SLOTS;
+    }
+
+    public static String getName(int slot) {
+        return NAMES[slot];
+    }
+
+    public static int maskOf(int slot) {
+        return 1 << slot;
+    }
+
+    // AsyncStorage key for a slot, e.g. "parkingLocation" or "parkingLocation_1"
+    public static String key(String baseKey, int slot) {
+        return slot == DEFAULT_SLOT ? baseKey : baseKey + "_" + slot;
+    }
+}
@@ -0,0 +1,128 @@
+package com.parkingwidgetapp;
+
+import android.content.BroadcastReceiver;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the work of widget and alarm broadcasts off the main thread, on the one thread that
+ * renders widgets. Every render goes through this thread, including the passes of
+ * {@link WidgetRefreshDispatcher}, so renders can't overtake each other: a render that read
+ * an older state can never send its views, or record its digest, after a newer one.
+ *
+ * The broadcast is kept alive with goAsync() until its work is done, so the process isn't
+ * killed halfway through a render, but never longer than a fixed budget: past that the
+ * PendingResult is finished anyway to stay clear of the broadcast ANR timeout, the work keeps
+ * running and the overrun is counted.
+ */
+public class WidgetBroadcastExecutor {
+    private static final String TAG = "WidgetBroadcastExecutor";
+
+    // Half of the 10 s a foreground broadcast may take
+    static final long BUDGET_MS = 5000;
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static Handler renderHandler;
+
+    // Handler of the render thread, also used by WidgetRefreshDispatcher to coalesce requests
+    static synchronized Handler getHandler() {
+        if (renderHandler == null) {
+            HandlerThread thread = new HandlerThread("WidgetRender", Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            renderHandler = new Handler(thread.getLooper());
+        }
+        return renderHandler;
+    }
+
+    // Runs work on the render thread, right away if already on it. name is a trace section, pass
+    // a constant so nothing is built when tracing is off
+    static void run(String name, Runnable work) {
+        execute((BroadcastReceiver.PendingResult) null, name, work);
+    }
+
+    // Runs work in the background, called from onReceive (or a callback of it) of receiver
+    public static void execute(BroadcastReceiver receiver, String name, Runnable work) {
+        execute(receiver.goAsync(), name, work);
+    }
+
+    // Runs work on the render thread and finishes result once it is done or out of budget.
+    // Without a result, e.g. onReceive called directly rather than by the system, nothing is
+    // kept alive and work called on the render thread runs inline
+    public static void execute(BroadcastReceiver.PendingResult result, String name, Runnable work) {
+        Handler handler = getHandler();
+        if (result == null && handler.getLooper() == Looper.myLooper()) {
+            runTraced(name, work);
+            return;
+        }
+
+        Task task = new Task(result, name, work);
+        if (result != null) {
+            mainHandler.postDelayed(task.watchdog, BUDGET_MS);
+        }
+        handler.post(task);
+    }
+
+    private static void runTraced(String name, Runnable work) {
+        ParkingTrace.begin(name);
+        try {
+            work.run();
+        } finally {
+            ParkingTrace.end();
+        }
+    }
+
+    private static final class Task implements Runnable {
+        final BroadcastReceiver.PendingResult result;
+        final String name;
+        final Runnable work;
+        final long start = System.nanoTime();
+        final AtomicBoolean finished = new AtomicBoolean();
+
+        final Runnable watchdog = new Runnable() {
+            @Override
+            public void run() {
+                if (finish()) {
+                    MetricsRegistry.BROADCAST_OVERRUNS.increment();
+                    Log.w(TAG, name + " still running after " + BUDGET_MS + " ms, broadcast finished early");
+                }
+            }
+        };
+
+        Task(BroadcastReceiver.PendingResult result, String name, Runnable work) {
+            this.result = result;
+            this.name = name;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            try {
+                runTraced(name, work);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error in " + name + ": " + e.getMessage());
+            } finally {
+                mainHandler.removeCallbacks(watchdog);
+                long elapsedUs = MetricsRegistry.elapsedMicros(start);
+                MetricsRegistry.BROADCAST_US.record(elapsedUs);
+                // Past the budget but the watchdog didn't get to run, e.g. on a busy main thread
+                if (finish() && elapsedUs > BUDGET_MS * 1000) {
+                    MetricsRegistry.BROADCAST_OVERRUNS.increment();
+                }
+            }
+        }
+
+        // Finishes the broadcast once, true for the caller that did
+        boolean finish() {
+            if (result != null && finished.compareAndSet(false, true)) {
+                result.finish();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.parkingwidgetapp;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.util.Log;
+
+/**
+ * Keeps the widgets and the midnight alarm in sync with {@link ParkingDataProvider}.
+ * Registered once when the application starts, so every committed change re-renders
+ * the widgets bound to the changed slot no matter which surface wrote it. Changes are
+ * handled on the {@link ParkingStorageWriter} thread, which reloads the slot before the
+ * widgets render it on the render thread of {@link WidgetBroadcastExecutor}.
+ */
+public class WidgetDataObserver extends ContentObserver {
+    private static final String TAG = "WidgetDataObserver";
+
+    private static WidgetDataObserver instance;
+
+    private final Context appContext;
+
+    private WidgetDataObserver(Context appContext) {
+        // Called on the writer thread: a change may have invalidated the cache and reloading it
+        // from the database here keeps that read off the main thread
+        super(ParkingStorageWriter.getWriterHandler());
+        this.appContext = appContext;
+    }
+
+    public static synchronized void register(Context context) {
+        if (instance != null) {
+            return;
+        }
+        instance = new WidgetDataObserver(context.getApplicationContext());
+        context.getContentResolver().registerContentObserver(ParkingDataProvider.CONTENT_URI, true, instance);
+    }
+
+    @Override
+    public void onChange(boolean selfChange) {
+        onChange(selfChange, null);
+    }
+
+    @Override
+    public void onChange(boolean selfChange, Uri uri) {
+        int slot = ParkingDataProvider.parseSlot(uri);
+        Log.d(TAG, "Parking data changed: " + uri);
+        if (slot >= 0) {
+            // Loaded before the render, which then only reads memory
+            ParkingStateCache.get(appContext, slot);
+            WidgetRefreshDispatcher.requestRefresh(appContext, slot);
+        } else {
+            for (int i = 0; i < VehicleSlots.MAX_SLOTS; i++) {
+                ParkingStateCache.get(appContext, i);
+            }
+            WidgetRefreshDispatcher.requestRefresh(appContext);
+        }
+        MidnightScheduler.scheduleNextUpdate(appContext);
+    }
+}
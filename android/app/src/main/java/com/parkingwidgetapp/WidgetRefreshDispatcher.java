@@ -0,0 +1,184 @@
+package com.parkingwidgetapp;
+
+import android.appwidget.AppWidgetManager;
+import android.appwidget.AppWidgetProviderInfo;
+import android.content.ComponentName;
+import android.content.Context;
+import android.util.Log;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Central entry point for refreshing placed widgets.
+ * Refresh requests arriving within a short window are coalesced into a single pass
+ * that renders the widgets of all providers bound to the requested vehicle slots.
+ * Passes run on the render thread of {@link WidgetBroadcastExecutor}, one after the other
+ * with every other render, so a pass never sends views older than what the widget shows.
+ */
+public class WidgetRefreshDispatcher {
+    private static final String TAG = "WidgetRefreshDispatcher";
+
+    // Window in which a burst of requests collapses into one refresh
+    private static final long COALESCE_DELAY_MS = 50;
+
+    private static final Class<?>[] PROVIDERS = {
+        ParkingWidgetMediumProvider.class,
+        ParkingWidgetSquareProvider.class,
+        ParkingWidgetWideProvider.class,
+        ParkingWidgetProvider.class
+    };
+    private static final int[] LAYOUTS = {
+        R.layout.widget_parking_medium,
+        R.layout.widget_parking_square,
+        R.layout.widget_parking_wide,
+        ParkingWidgetUtil.RESPONSIVE_LAYOUT
+    };
+    private static final String[] LOG_TAGS = {
+        "ParkingWidgetMedium",
+        "ParkingWidgetSquare",
+        "ParkingWidgetWide",
+        "ParkingWidget"
+    };
+
+    // Widget ids per provider as last asked from the host, null until asked; guarded by itself.
+    // Saves one getAppWidgetIds round trip per provider and refresh, see forgetAppWidgetIds()
+    private static final int[][] appWidgetIds = new int[PROVIDERS.length][];
+
+    // Slots waiting for the scheduled pass, non-zero while a pass is scheduled
+    private static final AtomicInteger pendingSlots = new AtomicInteger();
+    private static final AtomicLong requestedRefreshes = new AtomicLong();
+    private static final AtomicLong performedRefreshes = new AtomicLong();
+
+    private static volatile Context appContext;
+
+    private static final Runnable refreshRunnable = new Runnable() {
+        @Override
+        public void run() {
+            // Take the slots first so requests arriving during the pass schedule another one
+            performRefresh(appContext, pendingSlots.getAndSet(0));
+        }
+    };
+
+    // Schedule a refresh of all widgets, coalesced with other pending requests
+    public static void requestRefresh(Context context) {
+        schedule(context, VehicleSlots.ALL_SLOTS);
+    }
+
+    // Schedule a refresh of the widgets bound to one vehicle slot
+    public static void requestRefresh(Context context, int slot) {
+        schedule(context, VehicleSlots.maskOf(slot));
+    }
+
+    // Refresh all widgets right away, e.g. from a broadcast receiver that may not outlive onReceive.
+    // Renders inline on the render thread, otherwise it is the next render there
+    public static void refreshNow(Context context) {
+        appContext = context.getApplicationContext();
+        requestedRefreshes.incrementAndGet();
+        WidgetBroadcastExecutor.run("WidgetRefreshDispatcher.refreshNow", new Runnable() {
+            @Override
+            public void run() {
+                // Remove before taking the slots, a request in between is then still covered by this pass
+                WidgetBroadcastExecutor.getHandler().removeCallbacks(refreshRunnable);
+                pendingSlots.set(0);
+                performRefresh(appContext, VehicleSlots.ALL_SLOTS);
+            }
+        });
+    }
+
+    // Render a single widget right away, e.g. after it was bound to another slot
+    public static void refreshWidget(Context context, final int appWidgetId) {
+        final Context app = context.getApplicationContext();
+        WidgetBroadcastExecutor.run("WidgetRefreshDispatcher.refreshWidget", new Runnable() {
+            @Override
+            public void run() {
+                renderWidget(app, appWidgetId);
+            }
+        });
+    }
+
+    private static void renderWidget(Context app, int appWidgetId) {
+        AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(app);
+        AppWidgetProviderInfo info = appWidgetManager.getAppWidgetInfo(appWidgetId);
+        if (info == null) {
+            return;
+        }
+
+        for (int i = 0; i < PROVIDERS.length; i++) {
+            if (PROVIDERS[i].getName().equals(info.provider.getClassName())) {
+                int slot = WidgetSlotBindings.getSlot(app, appWidgetId);
+                ParkingWidgetUtil.updateWidget(app, appWidgetManager, new int[]{appWidgetId},
+                                              LAYOUTS[i], LOG_TAGS[i], slot, ParkingStateCache.get(app, slot));
+                return;
+            }
+        }
+    }
+
+    // Placed widgets of provider, asked from the host only after they may have changed
+    static int[] getAppWidgetIds(Context context, Class<?> provider) {
+        for (int i = 0; i < PROVIDERS.length; i++) {
+            if (PROVIDERS[i] == provider) {
+                return getAppWidgetIds(context, AppWidgetManager.getInstance(context), i);
+            }
+        }
+        return AppWidgetManager.getInstance(context).getAppWidgetIds(new ComponentName(context, provider));
+    }
+
+    // Called whenever a provider hears about added, deleted or restored widgets. The host tells
+    // the provider of each of these, so the ids can't change without passing through here
+    static void forgetAppWidgetIds() {
+        synchronized (appWidgetIds) {
+            Arrays.fill(appWidgetIds, null);
+        }
+    }
+
+    private static int[] getAppWidgetIds(Context context, AppWidgetManager appWidgetManager, int provider) {
+        synchronized (appWidgetIds) {
+            if (appWidgetIds[provider] == null) {
+                appWidgetIds[provider] = appWidgetManager.getAppWidgetIds(new ComponentName(context, PROVIDERS[provider]));
+            }
+            return appWidgetIds[provider];
+        }
+    }
+
+    public static long getRequestedRefreshCount() {
+        return requestedRefreshes.get();
+    }
+
+    public static long getPerformedRefreshCount() {
+        return performedRefreshes.get();
+    }
+
+    private static void schedule(Context context, int slotMask) {
+        appContext = context.getApplicationContext();
+        requestedRefreshes.incrementAndGet();
+        int previous;
+        do {
+            previous = pendingSlots.get();
+        } while (!pendingSlots.compareAndSet(previous, previous | slotMask));
+        if (previous == 0) {
+            WidgetBroadcastExecutor.getHandler().postDelayed(refreshRunnable, COALESCE_DELAY_MS);
+        }
+    }
+
+    private static void performRefresh(Context context, int slotMask) {
+        if (context == null || slotMask == 0) {
+            return;
+        }
+
+        AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(context);
+
+        for (int i = 0; i < PROVIDERS.length; i++) {
+            int[] ids = getAppWidgetIds(context, appWidgetManager, i);
+            if (ids.length > 0) {
+                ParkingWidgetUtil.updateWidgetSlots(context, appWidgetManager, ids,
+                                                   LAYOUTS[i], LOG_TAGS[i], slotMask);
+            }
+        }
+
+        long performed = performedRefreshes.incrementAndGet();
+        Log.d(TAG, "Widgets refreshed for slots 0x" + Integer.toHexString(slotMask)
+            + " (performed " + performed + " of " + requestedRefreshes.get() + " requested)");
+    }
+}
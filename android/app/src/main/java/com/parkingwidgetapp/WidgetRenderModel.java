@@ -0,0 +1,117 @@
+package com.parkingwidgetapp;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The texts a widget displays for a given parking state.
+ * Kept per widget id so a refresh can tell whether anything actually changed.
+ */
+public final class WidgetRenderModel {
+
+    static final String NO_LOCATION_TEXT = "위치정보 없음";
+    static final String TAP_TO_INPUT_TEXT = "터치하여 위치 입력";
+
+    private final int layoutId;
+    private final String parkingText;
+    private final String timeText;
+    // Suggestion chips, empty for layouts without them
+    private final List<ParkingRecord> suggestions;
+
+    public WidgetRenderModel(int layoutId, String parkingText, String timeText) {
+        this(layoutId, parkingText, timeText, Collections.<ParkingRecord>emptyList());
+    }
+
+    public WidgetRenderModel(int layoutId, String parkingText, String timeText, List<ParkingRecord> suggestions) {
+        this.layoutId = layoutId;
+        this.parkingText = parkingText;
+        this.timeText = timeText;
+        this.suggestions = suggestions;
+    }
+
+    public static WidgetRenderModel create(int layoutId, ParkingState state) {
+        return create(layoutId, state, null, 0);
+    }
+
+    // Keeps at most maxSuggestions of the given suggestions, which may be null
+    public static WidgetRenderModel create(int layoutId, ParkingState state,
+                                           List<ParkingRecord> suggestions, int maxSuggestions) {
+        if (suggestions == null) {
+            suggestions = Collections.emptyList();
+        } else if (suggestions.size() > maxSuggestions) {
+            suggestions = suggestions.subList(0, maxSuggestions);
+        }
+
+        // Display appropriate message based on data availability
+        String parkingText = state.hasLocation() ? state.getLocation() : NO_LOCATION_TEXT;
+
+        // Show timestamp or fallback text
+        String timeText = state.hasLocation() && state.getTimestamp() > 0
+            ? RelativeTimeFormatter.getDefault().format(state.getTimestamp())
+            : TAP_TO_INPUT_TEXT;
+
+        return new WidgetRenderModel(layoutId, parkingText, timeText, suggestions);
+    }
+
+    public int getLayoutId() {
+        return layoutId;
+    }
+
+    public String getParkingText() {
+        return parkingText;
+    }
+
+    public String getTimeText() {
+        return timeText;
+    }
+
+    public List<ParkingRecord> getSuggestions() {
+        return suggestions;
+    }
+
+    // True if only the saved time line differs from the other model
+    public boolean differsOnlyInTimeText(WidgetRenderModel other) {
+        return other != null
+            && layoutId == other.layoutId
+            && parkingText.equals(other.parkingText)
+            && sameSuggestions(other)
+            && !timeText.equals(other.timeText);
+    }
+
+    // Suggestions are compared by what the chips show, not by when they were last used
+    private boolean sameSuggestions(WidgetRenderModel other) {
+        if (suggestions.size() != other.suggestions.size()) {
+            return false;
+        }
+        for (int i = 0; i < suggestions.size(); i++) {
+            if (!suggestions.get(i).toLocationString().equals(other.suggestions.get(i).toLocationString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WidgetRenderModel)) {
+            return false;
+        }
+        WidgetRenderModel other = (WidgetRenderModel) o;
+        return layoutId == other.layoutId
+            && parkingText.equals(other.parkingText)
+            && timeText.equals(other.timeText)
+            && sameSuggestions(other);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = layoutId;
+        result = 31 * result + parkingText.hashCode();
+        result = 31 * result + timeText.hashCode();
+        result = 31 * result + suggestions.size();
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package com.parkingwidgetapp;
+
+import android.appwidget.AppWidgetManager;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.util.Log;
+import android.util.SparseIntArray;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Which vehicle slot each placed widget shows, keyed by appWidgetId.
+ * Widgets that were never configured show {@link VehicleSlots#DEFAULT_SLOT}.
+ * The map is loaded from SharedPreferences once and kept in memory afterwards.
+ */
+public class WidgetSlotBindings {
+    private static final String TAG = "WidgetSlotBindings";
+    private static final String PREFS_NAME = "ParkingWidgetSlots";
+    private static final String KEY_PREFIX = "widget_";
+
+    // Names the slot itself, in intents of views shared by every widget bound to it
+    static final String EXTRA_SLOT = "com.parkingwidgetapp.extra.SLOT";
+
+    private static SparseIntArray bindings;
+
+    public static synchronized int getSlot(Context context, int appWidgetId) {
+        return load(context).get(appWidgetId, VehicleSlots.DEFAULT_SLOT);
+    }
+
+    // Slot an intent from a widget refers to, see putTarget; the default slot if it names none
+    public static int getSlot(Context context, Intent intent) {
+        int slot = intent.getIntExtra(EXTRA_SLOT, -1);
+        if (VehicleSlots.isValid(slot)) {
+            return slot;
+        }
+        int appWidgetId = intent.getIntExtra(AppWidgetManager.EXTRA_APPWIDGET_ID,
+                                             AppWidgetManager.INVALID_APPWIDGET_ID);
+        return appWidgetId != AppWidgetManager.INVALID_APPWIDGET_ID
+            ? getSlot(context, appWidgetId) : VehicleSlots.DEFAULT_SLOT;
+    }
+
+    // Points an intent at a widget, or at slot when appWidgetId is INVALID_APPWIDGET_ID
+    static void putTarget(Intent intent, int appWidgetId, int slot) {
+        if (appWidgetId != AppWidgetManager.INVALID_APPWIDGET_ID) {
+            intent.putExtra(AppWidgetManager.EXTRA_APPWIDGET_ID, appWidgetId);
+        } else {
+            intent.putExtra(EXTRA_SLOT, slot);
+        }
+    }
+
+    // PendingIntent request code for a putTarget target; widget ids are positive, slots take negative codes
+    static int requestCode(int appWidgetId, int slot) {
+        return appWidgetId != AppWidgetManager.INVALID_APPWIDGET_ID ? appWidgetId : -1 - slot;
+    }
+
+    public static synchronized void bind(Context context, int appWidgetId, int slot) {
+        if (!VehicleSlots.isValid(slot)) {
+            throw new IllegalArgumentException("Invalid vehicle slot: " + slot);
+        }
+        load(context).put(appWidgetId, slot);
+        prefs(context).edit().putInt(KEY_PREFIX + appWidgetId, slot).apply();
+        Log.d(TAG, "Widget " + appWidgetId + " bound to slot " + slot);
+    }
+
+    public static synchronized void unbind(Context context, int[] appWidgetIds) {
+        SparseIntArray map = load(context);
+        SharedPreferences.Editor editor = prefs(context).edit();
+        for (int appWidgetId : appWidgetIds) {
+            map.delete(appWidgetId);
+            editor.remove(KEY_PREFIX + appWidgetId);
+        }
+        editor.apply();
+    }
+
+    // Returns the widgets in appWidgetIds that show the given slot
+    public static synchronized int[] filter(Context context, int[] appWidgetIds, int slot) {
+        SparseIntArray map = load(context);
+        int[] matching = new int[appWidgetIds.length];
+        int count = 0;
+        for (int appWidgetId : appWidgetIds) {
+            if (map.get(appWidgetId, VehicleSlots.DEFAULT_SLOT) == slot) {
+                matching[count++] = appWidgetId;
+            }
+        }
+        return count == matching.length ? matching : Arrays.copyOf(matching, count);
+    }
+
+    private static SparseIntArray load(Context context) {
+        if (bindings == null) {
+            SparseIntArray map = new SparseIntArray();
+            for (Map.Entry<String, ?> entry : prefs(context).getAll().entrySet()) {
+                if (!entry.getKey().startsWith(KEY_PREFIX) || !(entry.getValue() instanceof Integer)) {
+                    continue;
+                }
+                try {
+                    int appWidgetId = Integer.parseInt(entry.getKey().substring(KEY_PREFIX.length()));
+                    int slot = (Integer) entry.getValue();
+                    if (VehicleSlots.isValid(slot)) {
+                        map.put(appWidgetId, slot);
+                    }
+                } catch (NumberFormatException e) {
+                    Log.w(TAG, "Ignoring invalid binding key: " + entry.getKey());
+                }
+            }
+            bindings = map;
+        }
+        return bindings;
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
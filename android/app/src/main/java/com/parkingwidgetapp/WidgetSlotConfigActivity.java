@@ -0,0 +1,99 @@
+package com.parkingwidgetapp;
+
+import android.app.Activity;
+import android.app.AlertDialog;
+import android.appwidget.AppWidgetManager;
+import android.content.Context;
+import android.content.DialogInterface;
+import android.content.Intent;
+import android.os.Bundle;
+import android.util.Log;
+
+/**
+ * Widget configuration screen that binds a placed widget to a vehicle slot.
+ * Launched by the launcher when a widget is added (optional on Android 12+)
+ * and again whenever the user reconfigures it.
+ */
+public class WidgetSlotConfigActivity extends Activity {
+    private static final String TAG = "WidgetSlotConfig";
+
+    private int appWidgetId = AppWidgetManager.INVALID_APPWIDGET_ID;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Backing out must not place the widget
+        setResult(RESULT_CANCELED);
+
+        Bundle extras = getIntent().getExtras();
+        if (extras != null) {
+            appWidgetId = extras.getInt(AppWidgetManager.EXTRA_APPWIDGET_ID, AppWidgetManager.INVALID_APPWIDGET_ID);
+        }
+        if (appWidgetId == AppWidgetManager.INVALID_APPWIDGET_ID) {
+            finish();
+            return;
+        }
+
+        // The labels show each slot's location, which may still have to be read from the database
+        ParkingStorageWriter.loadStates(this, new ParkingStorageWriter.StatesCallback() {
+            @Override
+            public void onLoaded(ParkingState[] states) {
+                if (!isFinishing()) {
+                    showSlotChooser(states);
+                }
+            }
+        });
+    }
+
+    private void showSlotChooser(ParkingState[] states) {
+        String[] labels = new String[VehicleSlots.MAX_SLOTS];
+        for (int slot = 0; slot < VehicleSlots.MAX_SLOTS; slot++) {
+            ParkingState state = states[slot];
+            labels[slot] = state.hasLocation()
+                ? VehicleSlots.getName(slot) + " · " + state.getLocation()
+                : VehicleSlots.getName(slot);
+        }
+
+        new AlertDialog.Builder(this)
+            .setTitle("위젯에 표시할 차량")
+            .setSingleChoiceItems(labels, WidgetSlotBindings.getSlot(this, appWidgetId),
+                new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        dialog.dismiss();
+                        bindSlot(which);
+                    }
+                })
+            .setOnCancelListener(new DialogInterface.OnCancelListener() {
+                @Override
+                public void onCancel(DialogInterface dialog) {
+                    finish();
+                }
+            })
+            .show();
+    }
+
+    private void bindSlot(int slot) {
+        WidgetSlotBindings.bind(this, appWidgetId, slot);
+
+        // Render only this widget, with a full update since its content may look the same.
+        // Forgotten on the render thread, where no render in flight can record it again.
+        // Scheduling the alarm reads the slots and calls AlarmManager, so it runs there too
+        final Context appContext = getApplicationContext();
+        WidgetBroadcastExecutor.run("WidgetSlotConfigActivity.bindSlot", new Runnable() {
+            @Override
+            public void run() {
+                ParkingWidgetUtil.forgetWidgets(new int[]{appWidgetId});
+                WidgetRefreshDispatcher.refreshWidget(appContext, appWidgetId);
+                MidnightScheduler.scheduleNextUpdate(appContext);
+            }
+        });
+        Log.d(TAG, "Widget " + appWidgetId + " configured for slot " + slot);
+
+        Intent result = new Intent();
+        result.putExtra(AppWidgetManager.EXTRA_APPWIDGET_ID, appWidgetId);
+        setResult(RESULT_OK, result);
+        finish();
+    }
+}
@@ -0,0 +1,108 @@
+package com.parkingwidgetapp;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class FloorInputEngineTest {
+
+    // Applies the engine the way the dialog's TextWatcher does, one keystroke at a time
+    private static String type(String keys) {
+        String text = "";
+        for (int i = 0; i < keys.length(); i++) {
+            // The cursor stays in front of the suffix
+            String whole = text.endsWith("층") ? text.substring(0, text.length() - 1) : text;
+            text = FloorInputEngine.formatFloor(whole + keys.charAt(i) + (text.endsWith("층") ? "층" : ""), true);
+        }
+        return text;
+    }
+
+    @Test
+    public void addsSuffixWhileTyping() {
+        assertEquals("2층", type("2"));
+        assertEquals("12.5층", type("12.5"));
+        assertEquals("2.층", type("2."));
+    }
+
+    @Test
+    public void dropsDigitsPastTheRange() {
+        assertEquals("12층", type("123"));
+        assertEquals("2.5층", type("2.55"));
+        assertEquals("99.0층", type("99.0"));
+        assertEquals("99.9층", type("99.9"));
+        assertEquals("99.9층", type("999.9"));
+
+        assertFlags(FloorInputEngine.CHANGED | FloorInputEngine.OUT_OF_RANGE, "123층");
+    }
+
+    // The dialog, React Native and the saved record all take 0 up to 99.9층
+    @Test
+    public void acceptsFloorsBelow100() {
+        assertEquals(ParkingLocationFormat.FLOOR_OK, ParkingLocationFormat.validateFloorNumber("99.9"));
+        assertEquals(ParkingLocationFormat.FLOOR_OK, ParkingLocationFormat.validateFloorNumber("0"));
+        assertEquals(ParkingLocationFormat.FLOOR_OUT_OF_RANGE, ParkingLocationFormat.validateFloorNumber("100"));
+        assertEquals(999, ParkingRecord.parseFloorTenths("99.9"));
+        assertEquals("99.9", new ParkingRecord(false, 989, "", 0, 0).withFloorOffset(1, 0).getFloorNumber());
+    }
+
+    @Test
+    public void normalizesLeadingZeroAndDecimalPoint() {
+        assertEquals("2층", type("02"));
+        assertEquals("0층", type("00"));
+        assertEquals("0.5층", type(".5"));
+        assertEquals("0.5층", type("0.5"));
+    }
+
+    @Test
+    public void removesInvalidCharactersAndMisplacedSuffix() {
+        assertEquals("2.5층", FloorInputEngine.formatFloor("2-.5a층", true));
+        assertEquals("23층", FloorInputEngine.formatFloor("2층3", true));
+        assertEquals("", FloorInputEngine.formatFloor("층", true));
+        assertEquals("", FloorInputEngine.formatFloor("abc", true));
+    }
+
+    @Test
+    public void leavesSuffixOutForReactNative() {
+        assertEquals("12.5", FloorInputEngine.formatFloor("12.5", false));
+        assertEquals("12", FloorInputEngine.formatFloor("12층", false));
+        assertEquals("", FloorInputEngine.formatFloor((String) null, false));
+    }
+
+    @Test
+    public void reportsUnchangedInput() {
+        assertFlags(FloorInputEngine.UNCHANGED, "12.5층");
+        assertFlags(FloorInputEngine.UNCHANGED, "");
+    }
+
+    @Test
+    public void limitsAreaWithoutSplittingSurrogatePairs() {
+        String thirty = "가나다라마바사아자차카타파하ABCDEFGHIJKLMNOP";
+        assertEquals(30, thirty.length());
+        assertEquals(thirty, FloorInputEngine.limitArea(thirty));
+        assertEquals(thirty, FloorInputEngine.limitArea(thirty + "Q"));
+
+        String emojiAtCut = thirty.substring(0, 29) + "🚗";
+        assertEquals(thirty.substring(0, 29), FloorInputEngine.limitArea(emojiAtCut));
+    }
+
+    private static void assertFlags(int expected, String input) {
+        final StringBuilder builder = new StringBuilder(input);
+        int flags = FloorInputEngine.formatFloor(new FloorInputEngine.Text() {
+            @Override
+            public int length() {
+                return builder.length();
+            }
+
+            @Override
+            public char charAt(int index) {
+                return builder.charAt(index);
+            }
+
+            @Override
+            public void replace(int start, int end, CharSequence replacement) {
+                builder.replace(start, end, replacement.toString());
+            }
+        }, true);
+        assertEquals(expected, flags);
+    }
+}
@@ -0,0 +1,84 @@
+package com.parkingwidgetapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+
+public class MetricsRegistryTest {
+
+    @Before
+    public void setUp() {
+        MetricsRegistry.reset();
+    }
+
+    @Test
+    public void countsFromManyThreads() throws InterruptedException {
+        final int threads = 8;
+        final int perThread = 10_000;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perThread; i++) {
+                        MetricsRegistry.STORAGE_READS.increment();
+                        MetricsRegistry.STORAGE_READ_US.record(i % 1_000);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+
+        assertEquals(threads * perThread, MetricsRegistry.STORAGE_READS.get());
+        assertEquals(threads * perThread, MetricsRegistry.STORAGE_READ_US.snapshot().count);
+        assertEquals(999, MetricsRegistry.STORAGE_READ_US.snapshot().max);
+    }
+
+    @Test
+    public void reportsBucketPercentiles() {
+        for (int i = 0; i < 90; i++) {
+            MetricsRegistry.WIDGET_RENDER_US.record(80);
+        }
+        for (int i = 0; i < 10; i++) {
+            MetricsRegistry.WIDGET_RENDER_US.record(4_000);
+        }
+
+        MetricsRegistry.Histogram.Snapshot snapshot = MetricsRegistry.WIDGET_RENDER_US.snapshot();
+        assertEquals(100, snapshot.count);
+        assertEquals(100, snapshot.getPercentile(50));
+        assertEquals(100, snapshot.getPercentile(90));
+        assertEquals(4_000, snapshot.getPercentile(99));
+        assertEquals((90 * 80 + 10 * 4_000) / 100, snapshot.getMean());
+    }
+
+    @Test
+    public void clampsNegativeAndOverflowValues() {
+        MetricsRegistry.ALARM_LATENESS_MS.record(-5);
+        MetricsRegistry.ALARM_LATENESS_MS.record(3 * 60 * 60_000L);
+
+        MetricsRegistry.Histogram.Snapshot snapshot = MetricsRegistry.ALARM_LATENESS_MS.snapshot();
+        assertEquals(2, snapshot.count);
+        assertEquals(10, snapshot.getPercentile(50));
+        assertEquals(3 * 60 * 60_000L, snapshot.getPercentile(100));
+    }
+
+    @Test
+    public void dumpsEveryMetric() {
+        MetricsRegistry.ALARM_FIRES.increment();
+        StringWriter out = new StringWriter();
+        MetricsRegistry.dump(new PrintWriter(out));
+
+        String dump = out.toString();
+        for (MetricsRegistry.Counter counter : MetricsRegistry.getCounters()) {
+            assertTrue(dump.contains(counter.getName()));
+        }
+        assertTrue(dump.contains("alarm.fires = 1"));
+    }
+}
@@ -0,0 +1,118 @@
+package com.parkingwidgetapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ParkingRecordTest {
+
+    private static final long TIMESTAMP = 1741150800000L;
+
+    @Test
+    public void encodesAndDecodesAllFields() {
+        ParkingRecord record = new ParkingRecord(true, 25, "B-12", TIMESTAMP, 7);
+
+        assertEquals("1;1;25;1741150800000;7;B-12", record.encode());
+        assertEquals(record, ParkingRecord.decode(record.encode()));
+    }
+
+    @Test
+    public void keepsSeparatorsAndSpacesInArea() {
+        ParkingRecord record = new ParkingRecord(false, 30, "동문 엘리베이터; 기둥 C", TIMESTAMP, 1);
+
+        ParkingRecord decoded = ParkingRecord.decode(record.encode());
+        assertNotNull(decoded);
+        assertEquals("동문 엘리베이터; 기둥 C", decoded.getArea());
+        assertEquals("지상 3층 동문 엘리베이터; 기둥 C", decoded.toLocationString());
+    }
+
+    @Test
+    public void rejectsUnknownFormatAndGarbage() {
+        assertNull(ParkingRecord.decode("2;1;25;1741150800000;7;B-12"));
+        assertNull(ParkingRecord.decode("1;1;x;1741150800000;7;B-12"));
+        assertNull(ParkingRecord.decode("1;1;25"));
+        assertNull(ParkingRecord.decode(""));
+        assertNull(ParkingRecord.decode(null));
+    }
+
+    @Test
+    public void migratesLegacyStringsWithSpacesInArea() {
+        ParkingRecord record = ParkingRecord.fromLegacy("지하 2.5층 동문 엘리베이터 앞", TIMESTAMP, 3);
+
+        assertNotNull(record);
+        assertTrue(record.isUnderground());
+        assertEquals(25, record.getFloorTenths());
+        assertEquals("2.5", record.getFloorNumber());
+        assertEquals("동문 엘리베이터 앞", record.getArea());
+        assertEquals(TIMESTAMP, record.getTimestamp());
+        assertEquals(3, record.getVersion());
+    }
+
+    @Test
+    public void migratesLegacyStringWrittenFromJsWithTrailingSpace() {
+        ParkingRecord record = ParkingRecord.fromLegacy("지상 4층 ", TIMESTAMP, 1);
+
+        assertNotNull(record);
+        assertFalse(record.isUnderground());
+        assertEquals("", record.getArea());
+        assertEquals("지상 4층", record.toLocationString());
+    }
+
+    @Test
+    public void refusesLegacyStringsThatDoNotRoundTrip() {
+        assertNull(ParkingRecord.fromLegacy("옥상 2층", TIMESTAMP, 1));
+        assertNull(ParkingRecord.fromLegacy("지하 2.25층", TIMESTAMP, 1));
+        assertNull(ParkingRecord.fromLegacy("지하 02층", TIMESTAMP, 1));
+        assertNull(ParkingRecord.fromLegacy("주차장", TIMESTAMP, 1));
+    }
+
+    @Test
+    public void parsesFloorNumbersInTenths() {
+        assertEquals(0, ParkingRecord.parseFloorTenths("0"));
+        assertEquals(990, ParkingRecord.parseFloorTenths("99"));
+        assertEquals(125, ParkingRecord.parseFloorTenths("12.5"));
+        assertEquals(-1, ParkingRecord.parseFloorTenths("12."));
+        assertEquals(-1, ParkingRecord.parseFloorTenths(".5"));
+        assertEquals(-1, ParkingRecord.parseFloorTenths("1.25"));
+        assertEquals(-1, ParkingRecord.parseFloorTenths("a"));
+    }
+
+    @Test
+    public void movesFloorsAcrossTheGroundFloor() {
+        ParkingRecord b1 = new ParkingRecord(true, 10, "B-12", TIMESTAMP, 3);
+
+        assertEquals("지하 2층", b1.withFloorOffset(-1, TIMESTAMP).toLocationString());
+        assertEquals("지상 1층", b1.withFloorOffset(1, TIMESTAMP).toLocationString());
+        assertEquals("지하 1층 B-12", b1.withFloorOffset(0, TIMESTAMP).toLocationString());
+        assertEquals("지하 1층", new ParkingRecord(false, 10, "", TIMESTAMP, 1)
+            .withFloorOffset(-1, TIMESTAMP).toLocationString());
+        assertEquals("지하 1.5층", new ParkingRecord(true, 25, "", TIMESTAMP, 1)
+            .withFloorOffset(1, TIMESTAMP).toLocationString());
+    }
+
+    @Test
+    public void sameFloorKeepsArea() {
+        ParkingRecord same = new ParkingRecord(true, 20, "동문; 기둥 C", TIMESTAMP, 3).withFloorOffset(0, TIMESTAMP + 1);
+
+        assertEquals("동문; 기둥 C", same.getArea());
+        assertEquals("지하 2층 동문; 기둥 C", same.toLocationString());
+        assertEquals(TIMESTAMP + 1, same.getTimestamp());
+        assertEquals(0, same.getVersion());
+    }
+
+    @Test
+    public void floorOffsetDropsAreaAndStopsAtFloor99() {
+        ParkingRecord moved = new ParkingRecord(false, 30, "B-12", TIMESTAMP, 3).withFloorOffset(1, TIMESTAMP + 1);
+
+        assertEquals("", moved.getArea());
+        assertEquals(TIMESTAMP + 1, moved.getTimestamp());
+        assertEquals(0, moved.getVersion());
+        assertNull(new ParkingRecord(true, 990, "", TIMESTAMP, 1).withFloorOffset(-1, TIMESTAMP));
+        assertEquals("B99", ParkingLocationFormat.shortFloorLabel(true, "99"));
+        assertEquals("2.5F", ParkingLocationFormat.shortFloorLabel(false, "2.5"));
+    }
+}
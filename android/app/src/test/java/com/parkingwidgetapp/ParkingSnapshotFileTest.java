@@ -0,0 +1,148 @@
+package com.parkingwidgetapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class ParkingSnapshotFileTest {
+
+    private static final long SAVED_AT = 1741150800000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsBackWhatWasWritten() throws IOException {
+        File file = new File(folder.getRoot(), "snapshot.bin");
+        ParkingSnapshotFile snapshot = new ParkingSnapshotFile(file);
+        ParkingRecord record = new ParkingRecord(true, 25, "동문; 기둥 C", SAVED_AT, 7);
+        snapshot.put(0, ParkingState.of(record));
+        snapshot.put(1, ParkingState.empty(4));
+        snapshot.put(2, new ParkingState("주차장 옥상", SAVED_AT));
+        snapshot.write();
+
+        ParkingSnapshotFile reopened = new ParkingSnapshotFile(file);
+        assertEquals(record, reopened.get(0).getRecord());
+        assertEquals("지하 2.5층 동문; 기둥 C", reopened.get(0).getLocation());
+        assertFalse(reopened.get(1).hasLocation());
+        assertEquals(7, reopened.get(0).getVersion());
+        assertEquals(4, reopened.get(1).getVersion());
+        assertEquals("주차장 옥상", reopened.get(2).getLocation());
+        assertEquals(SAVED_AT, reopened.get(2).getTimestamp());
+        assertNull(reopened.get(2).getRecord());
+        assertFalse(new File(folder.getRoot(), "snapshot.bin.tmp").exists());
+    }
+
+    @Test
+    public void missingFileKnowsNothing() {
+        ParkingSnapshotFile snapshot = new ParkingSnapshotFile(new File(folder.getRoot(), "missing.bin"));
+        for (int slot = 0; slot < VehicleSlots.MAX_SLOTS; slot++) {
+            assertNull(snapshot.get(slot));
+        }
+    }
+
+    @Test
+    public void corruptFileKnowsNothing() throws IOException {
+        File file = new File(folder.getRoot(), "snapshot.bin");
+        ParkingSnapshotFile snapshot = new ParkingSnapshotFile(file);
+        snapshot.put(0, ParkingState.of(new ParkingRecord(false, 30, "", SAVED_AT, 1)));
+        snapshot.write();
+
+        byte[] data = ParkingSnapshotFile.encode(new ParkingState[]{
+            ParkingState.of(new ParkingRecord(false, 30, "", SAVED_AT, 1))
+        });
+        for (int i = 0; i < data.length; i++) {
+            byte[] flipped = data.clone();
+            flipped[i] ^= 0x10;
+            assertNull("byte " + i, ParkingSnapshotFile.decode(flipped)[0]);
+        }
+
+        // A torn write leaves a shorter file behind
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(data, 0, data.length - 3);
+        out.close();
+        assertNull(new ParkingSnapshotFile(file).get(0));
+    }
+
+    @Test
+    public void forgottenSlotKeepsPersistedFallback() throws IOException {
+        ParkingSnapshotFile snapshot = new ParkingSnapshotFile(new File(folder.getRoot(), "snapshot.bin"));
+        ParkingState state = ParkingState.of(new ParkingRecord(true, 10, "A-1", SAVED_AT, 2));
+        snapshot.put(0, state);
+        snapshot.write();
+
+        snapshot.forget(0);
+        assertNull(snapshot.get(0));
+        assertEquals(state.getRecord(), snapshot.getPersisted(0).getRecord());
+
+        // A database read doesn't replace a state committed in the meantime
+        ParkingState newer = ParkingState.of(new ParkingRecord(true, 20, "", SAVED_AT + 1, 3));
+        assertTrue(snapshot.putIfUnknown(0, newer));
+        assertFalse(snapshot.putIfUnknown(0, state));
+        assertEquals(newer.getRecord(), snapshot.get(0).getRecord());
+    }
+
+    @Test
+    public void forgottenSlotIsNotTrustedAfterRestart() throws IOException {
+        File file = new File(folder.getRoot(), "snapshot.bin");
+        ParkingSnapshotFile snapshot = new ParkingSnapshotFile(file);
+        snapshot.put(0, ParkingState.of(new ParkingRecord(true, 10, "A-1", SAVED_AT, 2)));
+        snapshot.put(1, ParkingState.empty(1));
+        snapshot.write();
+
+        snapshot.forget(0);
+        assertNull(new ParkingSnapshotFile(file).get(0));
+
+        // The next write keeps what is still known
+        snapshot.write();
+        ParkingSnapshotFile reopened = new ParkingSnapshotFile(file);
+        assertNull(reopened.get(0));
+        assertEquals(1, reopened.get(1).getVersion());
+    }
+
+    @Test
+    public void commitWithoutWriteIsNotTrustedAfterRestart() throws IOException {
+        File file = new File(folder.getRoot(), "snapshot.bin");
+        ParkingSnapshotFile snapshot = new ParkingSnapshotFile(file);
+        snapshot.put(0, ParkingState.of(new ParkingRecord(true, 10, "A-1", SAVED_AT, 2)));
+        snapshot.write();
+
+        // The process dies after the database commit, before the snapshot is written
+        snapshot.beginCommit(0);
+        assertNull(new ParkingSnapshotFile(file).get(0));
+
+        snapshot.put(0, ParkingState.of(new ParkingRecord(true, 20, "", SAVED_AT + 1, 3)));
+        snapshot.write();
+        assertEquals(3, new ParkingSnapshotFile(file).get(0).getVersion());
+    }
+
+    @Test
+    public void failedWriteDropsOlderFile() throws IOException {
+        File file = new File(folder.getRoot(), "snapshot.bin");
+        ParkingSnapshotFile snapshot = new ParkingSnapshotFile(file);
+        snapshot.put(0, ParkingState.of(new ParkingRecord(true, 10, "A-1", SAVED_AT, 2)));
+        snapshot.write();
+
+        // A directory in place of the temp file makes the next write fail
+        assertTrue(new File(folder.getRoot(), "snapshot.bin.tmp").mkdir());
+        snapshot.put(0, ParkingState.of(new ParkingRecord(true, 20, "", SAVED_AT + 1, 3)));
+        try {
+            snapshot.write();
+            fail("write should have failed");
+        } catch (IOException expected) {
+            // The database already has version 3, the file must not keep vouching for version 2
+        }
+        assertFalse(file.exists());
+        assertNull(new ParkingSnapshotFile(file).get(0));
+    }
+}
@@ -0,0 +1,127 @@
+package com.parkingwidgetapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ParkingStateSlotsTest {
+
+    private static final long SAVED_AT = 1741150800000L;
+    private static final int SAVES = 40000;
+
+    private static ParkingState state(int floorTenths, long version) {
+        return ParkingState.of(new ParkingRecord(true, floorTenths, "", SAVED_AT, version));
+    }
+
+    @Test
+    public void publishKeepsNewestVersion() {
+        ParkingStateSlots slots = new ParkingStateSlots(VehicleSlots.MAX_SLOTS);
+        assertNull(slots.get(0));
+
+        ParkingState second = state(20, 2);
+        assertSame(second, slots.publish(0, second));
+        // A slow reader publishing what it loaded earlier doesn't win
+        assertSame(second, slots.publish(0, state(10, 1)));
+        assertSame(second, slots.get(0));
+
+        ParkingState deleted = ParkingState.empty(3);
+        assertSame(deleted, slots.publish(0, deleted));
+
+        slots.clear(0);
+        ParkingState reloaded = state(10, 1);
+        assertSame(reloaded, slots.publish(0, reloaded));
+    }
+
+    // The writer thread publishes every commit while a loader keeps publishing stale reads, the way
+    // cache misses race commits, and readers check that the slot never goes back in time.
+    // Committing itself is covered against the real database by ParkingStorageWriterTest
+    @Test
+    public void staleLoadsNeverHideACommit() throws InterruptedException {
+        final ParkingStateSlots slots = new ParkingStateSlots(VehicleSlots.MAX_SLOTS);
+        slots.publish(0, ParkingState.EMPTY);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                await(start);
+                for (int version = 1; version <= SAVES; version++) {
+                    ParkingState committed = state(10, version);
+                    if (slots.publish(0, committed) != committed) {
+                        failures.add("commit of version " + version + " was not installed");
+                    }
+                }
+            }
+        });
+
+        Thread loader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                await(start);
+                while (writing.get()) {
+                    // Republishes a state it read a while ago, like a reader racing a commit
+                    ParkingState read = slots.get(0);
+                    Thread.yield();
+                    slots.publish(0, read);
+                    slots.publish(0, state(30, Math.max(0, read.getVersion() - 1)));
+                }
+            }
+        });
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    long lastSeen = 0;
+                    while (writing.get()) {
+                        long version = slots.get(0).getVersion();
+                        if (version < lastSeen) {
+                            failures.add("version " + version + " rendered after " + lastSeen);
+                            return;
+                        }
+                        lastSeen = version;
+                    }
+                }
+            }));
+        }
+
+        List<Thread> all = new ArrayList<>(readers);
+        all.add(writer);
+        all.add(loader);
+        for (Thread thread : all) {
+            thread.start();
+        }
+        start.countDown();
+        writer.join();
+        writing.set(false);
+        loader.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertEquals(SAVES, slots.get(0).getVersion());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
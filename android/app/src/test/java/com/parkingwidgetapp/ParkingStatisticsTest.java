@@ -0,0 +1,101 @@
+package com.parkingwidgetapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ParkingStatisticsTest {
+
+    private static final long HOUR_MS = 60L * 60 * 1000;
+    private static final long START = 1741150800000L;
+
+    @Test
+    public void ranksFloorsAndAreasByUse() {
+        ParkingStatistics stats = new ParkingStatistics();
+        long time = START;
+        time = save(stats, true, 20, "B-12", time);
+        time = save(stats, false, 30, "", time);
+        time = save(stats, true, 20, "A-1", time);
+        time = save(stats, true, 20, "B-12", time);
+
+        ParkingStatistics.Snapshot snapshot = stats.getSnapshot();
+        assertEquals(4, snapshot.saveCount);
+        assertEquals(2, snapshot.getTopFloorCount());
+        assertTrue(snapshot.isTopFloorUnderground(0));
+        assertEquals(20, snapshot.getTopFloorTenths(0));
+        assertEquals(3, snapshot.getTopFloorUses(0));
+        assertFalse(snapshot.isTopFloorUnderground(1));
+        assertEquals(30, snapshot.getTopFloorTenths(1));
+
+        assertEquals(2, snapshot.getTopAreaCount());
+        assertEquals("B-12", snapshot.getTopArea(0));
+        assertEquals(2, snapshot.getTopAreaUses(0));
+        assertEquals("A-1", snapshot.getTopArea(1));
+    }
+
+    @Test
+    public void tracksDurationsBetweenSavesAndDeletes() {
+        ParkingStatistics stats = new ParkingStatistics();
+        ParkingState first = saveState(stats, null, START);
+        ParkingState second = saveState(stats, first, START + 2 * HOUR_MS);
+        stats.onDelete(second, START + 6 * HOUR_MS);
+
+        ParkingStatistics.Snapshot snapshot = stats.getSnapshot();
+        assertEquals(1, snapshot.deleteCount);
+        assertEquals(2, snapshot.durationCount);
+        assertEquals(3 * HOUR_MS, snapshot.meanDurationMs);
+        assertTrue(snapshot.medianDurationMs > 0 && snapshot.medianDurationMs <= 4 * HOUR_MS);
+        assertTrue(snapshot.p90DurationMs >= snapshot.medianDurationMs);
+        assertTrue(snapshot.p90DurationMs <= 4 * HOUR_MS);
+    }
+
+    @Test
+    public void capsTrackedAreas() {
+        ParkingStatistics stats = new ParkingStatistics();
+        long time = START;
+        for (int i = 0; i < ParkingStatistics.MAX_TRACKED_AREAS * 2; i++) {
+            time = save(stats, true, 10, "area-" + i, time);
+        }
+        time = save(stats, true, 10, "favorite", time);
+        save(stats, true, 10, "favorite", time);
+
+        ParkingStatistics.Snapshot snapshot = stats.getSnapshot();
+        assertEquals("favorite", snapshot.getTopArea(0));
+        assertEquals(2, snapshot.getTopAreaUses(0));
+        assertTrue(snapshot.getTopAreaCount() <= ParkingStatistics.TOP_COUNT);
+    }
+
+    @Test
+    public void survivesEncodeAndDecode() {
+        ParkingStatistics stats = new ParkingStatistics();
+        ParkingState first = saveState(stats, null, START);
+        saveState(stats, first, START + HOUR_MS);
+
+        ParkingStatistics.Snapshot restored = ParkingStatistics.decode(stats.encode()).getSnapshot();
+        ParkingStatistics.Snapshot original = stats.getSnapshot();
+        assertEquals(original.saveCount, restored.saveCount);
+        assertEquals(original.meanDurationMs, restored.meanDurationMs);
+        assertEquals(original.medianDurationMs, restored.medianDurationMs);
+        assertEquals(original.getTopFloorTenths(0), restored.getTopFloorTenths(0));
+        assertEquals(original.getTopArea(0), restored.getTopArea(0));
+    }
+
+    @Test
+    public void decodesGarbageAsEmpty() {
+        assertEquals(0, ParkingStatistics.decode(new byte[]{1, 2, 3}).getSnapshot().saveCount);
+        assertEquals(0, ParkingStatistics.decode(null).getSnapshot().saveCount);
+    }
+
+    private static long save(ParkingStatistics stats, boolean underground, int floorTenths, String area, long time) {
+        stats.onSave(new ParkingRecord(underground, floorTenths, area, time, 0), null);
+        return time + HOUR_MS;
+    }
+
+    private static ParkingState saveState(ParkingStatistics stats, ParkingState previous, long time) {
+        ParkingRecord record = new ParkingRecord(true, 20, "B-12", time, 0);
+        stats.onSave(record, previous);
+        return ParkingState.of(record);
+    }
+}
@@ -0,0 +1,166 @@
+package com.parkingwidgetapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.os.Looper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Versioned writes against the real AsyncStorage database. A second writer commits behind the
+ * cache of ParkingStorageWriter, the way another process or React Native would, so the writer
+ * has to detect the conflict and retry on top of what was committed.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class, sdk = 34)
+public class ParkingStorageWriterTest {
+
+    private static final int SAVES_PER_WRITER = 200;
+    private static final long SAVED_AT = 1741150800000L;
+
+    private Application context;
+    private ParkingLocationRepository repository;
+    private long baseVersion;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        repository = ParkingLocationRepository.getInstance(context);
+        baseVersion = repository.read(VehicleSlots.DEFAULT_SLOT).getVersion();
+        ParkingStateCache.invalidate(VehicleSlots.DEFAULT_SLOT);
+    }
+
+    @Test
+    public void conflictRetriesOnTopOfExternalCommit() {
+        final List<ParkingState> committed = new ArrayList<>();
+        final List<Exception> errors = new ArrayList<>();
+        // Loads the slot into the writer's cache
+        ParkingStorageWriter.save(context, VehicleSlots.DEFAULT_SLOT, record(10), collect(committed, errors));
+        drain();
+
+        // Committed behind the cache, which still says baseVersion + 1
+        repository.save(VehicleSlots.DEFAULT_SLOT, record(20).withVersion(baseVersion + 2), baseVersion + 1);
+        long conflictsBefore = MetricsRegistry.STORAGE_WRITE_CONFLICTS.get();
+
+        ParkingStorageWriter.save(context, VehicleSlots.DEFAULT_SLOT, record(30), collect(committed, errors));
+        drain();
+
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertEquals(1, MetricsRegistry.STORAGE_WRITE_CONFLICTS.get() - conflictsBefore);
+        assertEquals(baseVersion + 3, committed.get(1).getVersion());
+        ParkingState stored = repository.read(VehicleSlots.DEFAULT_SLOT);
+        assertEquals(baseVersion + 3, stored.getVersion());
+        assertEquals(30, stored.getRecord().getFloorTenths());
+    }
+
+    @Test
+    public void commitInterruptedBeforeSnapshotIsReadFromDatabase() {
+        final List<ParkingState> committed = new ArrayList<>();
+        final List<Exception> errors = new ArrayList<>();
+        ParkingStorageWriter.save(context, VehicleSlots.DEFAULT_SLOT, record(10), collect(committed, errors));
+        drain();
+        File file = new File(context.getFilesDir(), ParkingStateCache.SNAPSHOT_FILE_NAME);
+        assertEquals(baseVersion + 1, new ParkingSnapshotFile(file).get(VehicleSlots.DEFAULT_SLOT).getVersion());
+
+        // The steps a save takes up to its commit, then the process dies before the snapshot is written
+        ParkingStateCache.getSnapshotFile(context).beginCommit(VehicleSlots.DEFAULT_SLOT);
+        repository.save(VehicleSlots.DEFAULT_SLOT, record(20).withVersion(baseVersion + 2), baseVersion + 1);
+
+        // A cold process doesn't trust the snapshot and reads the commit from the database
+        ParkingSnapshotFile restarted = new ParkingSnapshotFile(file);
+        assertNull(restarted.get(VehicleSlots.DEFAULT_SLOT));
+        ParkingState stored = repository.read(VehicleSlots.DEFAULT_SLOT);
+        assertEquals(baseVersion + 2, stored.getVersion());
+        assertEquals(20, stored.getRecord().getFloorTenths());
+    }
+
+    // Every save either commits exactly one version or fails after MAX_WRITE_ATTEMPTS conflicts,
+    // and no commit overwrites another one unseen
+    @Test
+    public void interleavedWritersLoseNoUpdate() {
+        final List<ParkingState> committed = new ArrayList<>();
+        final List<Exception> errors = new ArrayList<>();
+        long conflictsBefore = MetricsRegistry.STORAGE_WRITE_CONFLICTS.get();
+
+        Set<Long> externalVersions = new HashSet<>();
+        for (int i = 0; i < SAVES_PER_WRITER; i++) {
+            ParkingStorageWriter.save(context, VehicleSlots.DEFAULT_SLOT, record(10 + i % 50),
+                                      collect(committed, errors));
+            // Runs while the writer thread works through the queue
+            while (true) {
+                long version = repository.read(VehicleSlots.DEFAULT_SLOT).getVersion();
+                try {
+                    repository.save(VehicleSlots.DEFAULT_SLOT, record(60 + i % 30).withVersion(version + 1), version);
+                    externalVersions.add(version + 1);
+                    break;
+                } catch (ParkingLocationRepository.VersionConflictException e) {
+                    // The writer committed in between, read again
+                }
+            }
+        }
+        drain();
+
+        for (Exception error : errors) {
+            assertTrue(error.toString(), error instanceof ParkingLocationRepository.VersionConflictException);
+        }
+        assertEquals(SAVES_PER_WRITER, committed.size() + errors.size());
+
+        Set<Long> versions = new HashSet<>(externalVersions);
+        for (ParkingState state : committed) {
+            assertTrue("version " + state.getVersion() + " committed twice", versions.add(state.getVersion()));
+        }
+        // Versions are handed out without gaps, so a lost update would leave one missing
+        long last = repository.read(VehicleSlots.DEFAULT_SLOT).getVersion();
+        assertEquals(last - baseVersion, versions.size());
+        assertEquals(baseVersion + 1, (long) Collections.min(versions));
+        assertEquals(last, (long) Collections.max(versions));
+
+        long conflicts = MetricsRegistry.STORAGE_WRITE_CONFLICTS.get() - conflictsBefore;
+        assertTrue(conflicts + " conflicts for " + SAVES_PER_WRITER + " saves",
+                   conflicts <= (long) ParkingStorageWriter.MAX_WRITE_ATTEMPTS * SAVES_PER_WRITER);
+        assertTrue(errors.size() + " failed saves after " + conflicts + " conflicts",
+                   (long) ParkingStorageWriter.MAX_WRITE_ATTEMPTS * errors.size() <= conflicts);
+    }
+
+    private static ParkingRecord record(int floorTenths) {
+        // Version is assigned by the writer
+        return new ParkingRecord(true, floorTenths, "B-12", SAVED_AT, 0);
+    }
+
+    private static ParkingStorageWriter.Callback collect(final List<ParkingState> committed,
+                                                         final List<Exception> errors) {
+        return new ParkingStorageWriter.Callback() {
+            @Override
+            public void onCommitted(ParkingState state) {
+                committed.add(state);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                errors.add(e);
+            }
+        };
+    }
+
+    // Waits for the writer thread, then delivers its callbacks on the main thread
+    private static void drain() {
+        shadowOf(ParkingStorageWriter.getWriterHandler().getLooper()).idle();
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+}
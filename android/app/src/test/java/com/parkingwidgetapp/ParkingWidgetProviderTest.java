@@ -0,0 +1,78 @@
+package com.parkingwidgetapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.appwidget.AppWidgetManager;
+import android.os.Looper;
+import android.view.View;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowAppWidgetManager;
+
+/**
+ * Checks which refreshes reach the widget host. With setAlwaysRecreateViewsDuringUpdate the
+ * shadow inflates a new view for every updateAppWidget, so a changed view means a delivered update.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class, sdk = 34)
+public class ParkingWidgetProviderTest {
+
+    private Application context;
+    private ShadowAppWidgetManager shadowManager;
+    private int[] widgetIds;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        ParkingLocationRepository repository = ParkingLocationRepository.getInstance(context);
+        long version = repository.read(VehicleSlots.DEFAULT_SLOT).getVersion();
+        repository.save(VehicleSlots.DEFAULT_SLOT,
+            new ParkingRecord(true, 20, "B-12", System.currentTimeMillis() - 60_000, version + 1), version);
+        ParkingStateCache.invalidate(VehicleSlots.DEFAULT_SLOT);
+
+        shadowManager = shadowOf(AppWidgetManager.getInstance(context));
+        shadowManager.setAlwaysRecreateViewsDuringUpdate(true);
+        widgetIds = shadowManager.createWidgets(ParkingWidgetMediumProvider.class, R.layout.widget_parking_medium, 2);
+        idleRenderThread();
+    }
+
+    @Test
+    public void systemUpdateRedrawsUnchangedWidgets() {
+        View before = shadowManager.getViewFor(widgetIds[0]);
+
+        // Same data, e.g. the APPWIDGET_UPDATE a launcher restart sends
+        new ParkingWidgetMediumProvider().onUpdate(context, AppWidgetManager.getInstance(context), widgetIds);
+        idleRenderThread();
+
+        View after = shadowManager.getViewFor(widgetIds[0]);
+        assertNotSame(before, after);
+        assertNotSame(before, shadowManager.getViewFor(widgetIds[1]));
+        assertEquals("지하 2층 B-12", ((TextView) after.findViewById(R.id.parking_text)).getText().toString());
+    }
+
+    @Test
+    public void dataRefreshSkipsUnchangedWidgets() {
+        View before = shadowManager.getViewFor(widgetIds[0]);
+
+        WidgetRefreshDispatcher.refreshNow(context);
+        idleRenderThread();
+
+        assertSame(before, shadowManager.getViewFor(widgetIds[0]));
+    }
+
+    // Widgets render on the thread of WidgetBroadcastExecutor, callbacks may follow on the main thread
+    private static void idleRenderThread() {
+        shadowOf(WidgetBroadcastExecutor.getHandler().getLooper()).idle();
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+}
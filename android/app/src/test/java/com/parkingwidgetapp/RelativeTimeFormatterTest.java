@@ -0,0 +1,84 @@
+package com.parkingwidgetapp;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RelativeTimeFormatterTest {
+
+    private static final TimeZone SEOUL = TimeZone.getTimeZone("Asia/Seoul");
+
+    private RelativeTimeFormatter formatter;
+    private long now;
+
+    @Before
+    public void setUp() {
+        formatter = new RelativeTimeFormatter(SEOUL);
+        // Wednesday 2025-03-05 14:00 KST
+        now = at(2025, Calendar.MARCH, 5, 14, 0);
+    }
+
+    @Test
+    public void formatsTodayAsTimeOfSave() {
+        assertEquals("오전 10:30 저장", formatter.format(at(2025, Calendar.MARCH, 5, 10, 30), now));
+        assertEquals("오후 1:05 저장", formatter.format(at(2025, Calendar.MARCH, 5, 13, 5), now));
+    }
+
+    @Test
+    public void formatsMidnightAndNoonAsTwelve() {
+        assertEquals("오전 12:00 저장", formatter.format(at(2025, Calendar.MARCH, 5, 0, 0), now));
+        assertEquals("오후 12:59 저장", formatter.format(at(2025, Calendar.MARCH, 5, 12, 59), now));
+    }
+
+    @Test
+    public void formatsYesterdayWithPrefix() {
+        assertEquals("어제 오후 11:59", formatter.format(at(2025, Calendar.MARCH, 4, 23, 59), now));
+        assertEquals("어제 오전 12:00", formatter.format(at(2025, Calendar.MARCH, 4, 0, 0), now));
+    }
+
+    @Test
+    public void formatsOlderDatesWithMonthDayAndWeekday() {
+        assertEquals("3월3일(월) 오후 11:59", formatter.format(at(2025, Calendar.MARCH, 3, 23, 59), now));
+        assertEquals("2월28일(금) 오전 9:07", formatter.format(at(2025, Calendar.FEBRUARY, 28, 9, 7), now));
+        assertEquals("12월25일(수) 오후 6:00", formatter.format(at(2024, Calendar.DECEMBER, 25, 18, 0), now));
+        assertEquals("2월29일(목) 오전 8:00", formatter.format(at(2024, Calendar.FEBRUARY, 29, 8, 0), now));
+    }
+
+    @Test
+    public void rollsDayBoundsOverAtMidnight() {
+        long saved = at(2025, Calendar.MARCH, 5, 10, 30);
+        assertEquals("오전 10:30 저장", formatter.format(saved, now));
+        assertEquals("어제 오전 10:30", formatter.format(saved, at(2025, Calendar.MARCH, 6, 0, 0)));
+        assertEquals("3월5일(수) 오전 10:30", formatter.format(saved, at(2025, Calendar.MARCH, 7, 0, 0)));
+    }
+
+    @Test
+    public void appendsIntoCallerBuffer() {
+        StringBuilder out = new StringBuilder("> ");
+        formatter.appendTo(at(2025, Calendar.MARCH, 5, 7, 9), now, out);
+        assertEquals("> 오전 7:09 저장", out.toString());
+    }
+
+    @Test
+    public void nextChangeIsMidnightWhileLabelIsRelative() {
+        long midnight = at(2025, Calendar.MARCH, 6, 0, 0);
+        assertEquals(midnight, formatter.nextChangeAt(at(2025, Calendar.MARCH, 5, 10, 30), now));
+        assertEquals(midnight, formatter.nextChangeAt(at(2025, Calendar.MARCH, 4, 8, 0), now));
+    }
+
+    @Test
+    public void noChangeOnceLabelShowsDate() {
+        assertEquals(-1, formatter.nextChangeAt(at(2025, Calendar.MARCH, 3, 23, 59), now));
+    }
+
+    private static long at(int year, int month, int day, int hour, int minute) {
+        Calendar cal = Calendar.getInstance(SEOUL);
+        cal.clear();
+        cal.set(year, month, day, hour, minute, 0);
+        return cal.getTimeInMillis();
+    }
+}
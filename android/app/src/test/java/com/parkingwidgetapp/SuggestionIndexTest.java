@@ -0,0 +1,99 @@
+package com.parkingwidgetapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class SuggestionIndexTest {
+
+    private static final long START = 1741150800000L;
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private static ParkingRecord record(boolean underground, int floorTenths, String area, long timestamp) {
+        return new ParkingRecord(underground, floorTenths, area, timestamp, 1);
+    }
+
+    @Test
+    public void ranksByFrequency() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.onSave(record(true, 20, "B-12", START));
+        index.onSave(record(false, 30, "", START + 1000));
+        index.onSave(record(true, 20, "B-12", START + 2000));
+
+        List<ParkingRecord> top = index.getTop();
+        assertEquals(2, top.size());
+        assertEquals("지하 2층 B-12", top.get(0).toLocationString());
+        assertEquals(START + 2000, top.get(0).getTimestamp());
+        assertEquals("지상 3층", top.get(1).toLocationString());
+    }
+
+    @Test
+    public void recentUseOutranksOldFrequentUse() {
+        SuggestionIndex index = new SuggestionIndex();
+        for (int i = 0; i < 4; i++) {
+            index.onSave(record(true, 20, "B-12", START + i * DAY_MS));
+        }
+        // Four uses a month ago weigh less than one use today
+        long today = START + 35 * DAY_MS;
+        index.onSave(record(true, 10, "A-1", today));
+
+        assertEquals("지하 1층 A-1", index.getTop().get(0).toLocationString());
+    }
+
+    @Test
+    public void staysWithinCapAndDropsLowestWeight() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.onSave(record(true, 10, "", START));
+        index.onSave(record(true, 10, "", START + 1));
+        for (int i = 0; i < SuggestionIndex.MAX_ENTRIES * 2; i++) {
+            index.onSave(record(false, 10 + i * 10, "", START + 2 + i));
+        }
+
+        assertEquals(SuggestionIndex.MAX_ENTRIES, index.size());
+        assertEquals(SuggestionIndex.TOP_COUNT, index.getTop().size());
+        assertEquals("지하 1층", index.getTop().get(0).toLocationString());
+    }
+
+    @Test
+    public void rebasesLandmarkOverLongPeriods() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.onSave(record(true, 20, "", START));
+        // Far beyond where 2^(age / half-life) stays representable
+        long later = START + 200 * SuggestionIndex.HALF_LIFE_MS;
+        index.onSave(record(true, 30, "", later));
+        index.onSave(record(true, 30, "", later + 1));
+
+        List<ParkingRecord> top = index.getTop();
+        assertEquals("지하 3층", top.get(0).toLocationString());
+        assertEquals("지하 2층", top.get(1).toLocationString());
+    }
+
+    @Test
+    public void encodesAndDecodesRanking() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.onSave(record(true, 25, "동문; 기둥 C", START));
+        index.onSave(record(false, 0, "", START + 1000));
+        index.onSave(record(true, 25, "동문; 기둥 C", START + 2000));
+
+        byte[] encoded = index.encode();
+        assertTrue("encoded size " + encoded.length, encoded.length < 128);
+
+        SuggestionIndex decoded = SuggestionIndex.decode(encoded);
+        assertEquals(index.getTop(), decoded.getTop());
+
+        // Keeps ranking after a restart
+        decoded.onSave(record(false, 0, "", START + 3000));
+        decoded.onSave(record(false, 0, "", START + 4000));
+        assertEquals("지상 0층", decoded.getTop().get(0).toLocationString());
+    }
+
+    @Test
+    public void decodesGarbageAsEmpty() {
+        assertEquals(0, SuggestionIndex.decode(null).getTop().size());
+        assertEquals(0, SuggestionIndex.decode(new byte[]{0, 0, 0, 9}).getTop().size());
+        assertEquals(0, SuggestionIndex.decode(new byte[]{0, 0}).getTop().size());
+    }
+}
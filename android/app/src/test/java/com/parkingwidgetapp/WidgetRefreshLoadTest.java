@@ -0,0 +1,288 @@
+package com.parkingwidgetapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.appwidget.AppWidgetManager;
+import android.content.ComponentName;
+import android.content.Intent;
+import android.os.Looper;
+import android.view.View;
+import android.widget.RemoteViews;
+
+import com.facebook.react.bridge.BridgeReactContext;
+import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.PromiseImpl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowAppWidgetManager;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of the widget refresh path with hundreds of placed widgets.
+ * Counts what a refresh costs the widget host: updates that reach a widget, RemoteViews trees
+ * sent and getAppWidgetIds calls, all per refresh pass, plus the bytes it allocates on the
+ * threads doing the work. Fails when a refresh starts re-sending unchanged widgets, doing more
+ * IPC per pass or allocating far more. Latency is only reported, it depends on the machine.
+ *
+ * Runs with a plain Application so React Native isn't loaded.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class, sdk = 34, shadows = WidgetRefreshLoadTest.CountingAppWidgetManager.class)
+public class WidgetRefreshLoadTest {
+
+    private static final int WIDGETS_PER_PROVIDER = 200;
+    // Medium, square and wide
+    private static final int FIXED_SIZE_WIDGETS = WIDGETS_PER_PROVIDER * 3;
+    private static final int TOTAL_WIDGETS = FIXED_SIZE_WIDGETS + WIDGETS_PER_PROVIDER;
+    private static final int PASSES = 5;
+
+    // Loose enough for another JVM, a regression is usually 10x
+    private static final long MAX_UNCHANGED_REFRESH_BYTES = 512 * 1024;
+
+    private Application context;
+    private ParkingLocationRepository repository;
+    private ShadowAppWidgetManager shadowManager;
+    private int[] widgetIds;
+    private long savedAt;
+
+    /** Counts the calls a refresh makes into the widget host. */
+    @Implements(AppWidgetManager.class)
+    public static class CountingAppWidgetManager extends ShadowAppWidgetManager {
+        static final AtomicInteger appWidgetIdQueries = new AtomicInteger();
+        static final Set<RemoteViews> sentViews = Collections.synchronizedSet(
+            Collections.newSetFromMap(new IdentityHashMap<RemoteViews, Boolean>()));
+
+        @Implementation
+        @Override
+        protected int[] getAppWidgetIds(ComponentName provider) {
+            appWidgetIdQueries.incrementAndGet();
+            return super.getAppWidgetIds(provider);
+        }
+
+        @Implementation
+        @Override
+        protected void updateAppWidget(int appWidgetId, RemoteViews views) {
+            sentViews.add(views);
+            super.updateAppWidget(appWidgetId, views);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        repository = ParkingLocationRepository.getInstance(context);
+        WidgetDataObserver.register(context);
+
+        savedAt = System.currentTimeMillis() - 60_000;
+        long version = repository.read(VehicleSlots.DEFAULT_SLOT).getVersion();
+        repository.save(VehicleSlots.DEFAULT_SLOT, new ParkingRecord(true, 20, "B-12", savedAt, version + 1), version);
+        ParkingStateCache.invalidate(VehicleSlots.DEFAULT_SLOT);
+
+        shadowManager = shadowOf(AppWidgetManager.getInstance(context));
+        // Every updateAppWidget inflates a new view, so a changed view is a delivered update
+        shadowManager.setAlwaysRecreateViewsDuringUpdate(true);
+        int[] medium = shadowManager.createWidgets(ParkingWidgetMediumProvider.class,
+                                                   R.layout.widget_parking_medium, WIDGETS_PER_PROVIDER);
+        int[] square = shadowManager.createWidgets(ParkingWidgetSquareProvider.class,
+                                                   R.layout.widget_parking_square, WIDGETS_PER_PROVIDER);
+        int[] wide = shadowManager.createWidgets(ParkingWidgetWideProvider.class,
+                                                 R.layout.widget_parking_wide, WIDGETS_PER_PROVIDER);
+        int[] responsive = shadowManager.createWidgets(ParkingWidgetProvider.class,
+                                                       R.layout.widget_parking_medium, WIDGETS_PER_PROVIDER);
+        widgetIds = new int[TOTAL_WIDGETS];
+        System.arraycopy(medium, 0, widgetIds, 0, WIDGETS_PER_PROVIDER);
+        System.arraycopy(square, 0, widgetIds, WIDGETS_PER_PROVIDER, WIDGETS_PER_PROVIDER);
+        System.arraycopy(wide, 0, widgetIds, 2 * WIDGETS_PER_PROVIDER, WIDGETS_PER_PROVIDER);
+        System.arraycopy(responsive, 0, widgetIds, FIXED_SIZE_WIDGETS, WIDGETS_PER_PROVIDER);
+        idleRenderThread();
+    }
+
+    @Test
+    public void refreshPathScalesWithWidgetCount() {
+        // Nothing changed, so no widget may be sent again, and the widget ids are known by now
+        Cost providerRefresh = measure("Medium.updateAllWidgets", new Runnable() {
+            @Override
+            public void run() {
+                ParkingWidgetMediumProvider.updateAllWidgets(context);
+                idleRenderThread();
+            }
+        });
+        providerRefresh.assertPerPass(0, 0, 0);
+        providerRefresh.assertAllocationBelow(MAX_UNCHANGED_REFRESH_BYTES);
+
+        final MidnightUpdateReceiver receiver = new MidnightUpdateReceiver();
+        Cost alarmRefresh = measure("MidnightUpdateReceiver", new Runnable() {
+            @Override
+            public void run() {
+                Intent intent = new Intent(MidnightUpdateReceiver.getMidnightUpdateAction());
+                intent.putExtra(MidnightScheduler.EXTRA_TRIGGER_TIME, System.currentTimeMillis());
+                receiver.onReceive(context, intent);
+                idleRenderThread();
+            }
+        });
+        alarmRefresh.assertPerPass(0, 0, 0);
+        alarmRefresh.assertAllocationBelow(MAX_UNCHANGED_REFRESH_BYTES);
+
+        // Every pass stores a new location the way JS does, so every widget is sent once
+        final ParkingWidgetModule module = new ParkingWidgetModule(new BridgeReactContext(context));
+        final String[] rejection = new String[1];
+        final Callback resolve = new Callback() {
+            @Override
+            public void invoke(Object... args) {
+            }
+        };
+        final Callback reject = new Callback() {
+            @Override
+            public void invoke(Object... args) {
+                rejection[0] = Arrays.toString(args);
+            }
+        };
+        final int[] floor = {0};
+        Cost moduleRefresh = measure("ParkingWidgetModule.updateWidgets", new Runnable() {
+            @Override
+            public void run() {
+                floor[0]++;
+                long version = repository.read(VehicleSlots.DEFAULT_SLOT).getVersion();
+                repository.save(VehicleSlots.DEFAULT_SLOT,
+                    new ParkingRecord(true, floor[0] * 10, "B-12", savedAt, version + 1), version);
+                module.updateWidgets(new PromiseImpl(resolve, reject));
+                // Observer notification on the writer thread, then the dispatcher's coalescing delay
+                shadowOf(ParkingStorageWriter.getWriterHandler().getLooper()).idle();
+                shadowOf(WidgetBroadcastExecutor.getHandler().getLooper()).idleFor(Duration.ofMillis(100));
+                shadowOf(Looper.getMainLooper()).idle();
+            }
+        });
+        assertNull(rejection[0]);
+        // A fixed-size widget opens the dialog for itself and needs its own tree,
+        // all responsive widgets share one that names the slot
+        moduleRefresh.assertPerPass(TOTAL_WIDGETS, FIXED_SIZE_WIDGETS + 1, 0);
+    }
+
+    private Cost measure(String name, Runnable refresh) {
+        // The first pass may still settle state left by setUp
+        refresh.run();
+
+        long delivered = 0;
+        long[] latenciesUs = new long[PASSES];
+        CountingAppWidgetManager.appWidgetIdQueries.set(0);
+        CountingAppWidgetManager.sentViews.clear();
+        long bytesBefore = allocatedBytes();
+        for (int i = 0; i < PASSES; i++) {
+            View[] before = currentViews();
+            long start = System.nanoTime();
+            refresh.run();
+            latenciesUs[i] = MetricsRegistry.elapsedMicros(start);
+            delivered += countChanged(before);
+        }
+        long bytes = bytesBefore < 0 ? -1 : allocatedBytes() - bytesBefore;
+
+        Arrays.sort(latenciesUs);
+        Cost cost = new Cost(name, delivered, CountingAppWidgetManager.sentViews.size(),
+                             CountingAppWidgetManager.appWidgetIdQueries.get(),
+                             latenciesUs[PASSES / 2], bytes < 0 ? -1 : bytes / PASSES);
+        System.out.println("Widget refresh load report: " + cost);
+        return cost;
+    }
+
+    // Bytes allocated so far by the test, render and writer threads, or -1 if the JVM can't tell
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        long[] ids = {
+            Thread.currentThread().getId(),
+            WidgetBroadcastExecutor.getHandler().getLooper().getThread().getId(),
+            ParkingStorageWriter.getWriterHandler().getLooper().getThread().getId()
+        };
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(ids)) {
+            if (bytes < 0) {
+                return -1;
+            }
+            total += bytes;
+        }
+        return total;
+    }
+
+    // Widgets render on the thread of WidgetBroadcastExecutor, callbacks may follow on the main thread
+    private static void idleRenderThread() {
+        shadowOf(WidgetBroadcastExecutor.getHandler().getLooper()).idle();
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    private View[] currentViews() {
+        View[] views = new View[widgetIds.length];
+        for (int i = 0; i < widgetIds.length; i++) {
+            views[i] = shadowManager.getViewFor(widgetIds[i]);
+        }
+        return views;
+    }
+
+    private int countChanged(View[] before) {
+        int changed = 0;
+        for (int i = 0; i < widgetIds.length; i++) {
+            if (shadowManager.getViewFor(widgetIds[i]) != before[i]) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private static final class Cost {
+        final String name;
+        final long deliveredUpdates;
+        final long remoteViewsSent;
+        final long appWidgetIdQueries;
+        final long medianUs;
+        final long bytesPerPass;
+
+        Cost(String name, long deliveredUpdates, long remoteViewsSent, long appWidgetIdQueries,
+             long medianUs, long bytesPerPass) {
+            this.name = name;
+            this.deliveredUpdates = deliveredUpdates;
+            this.remoteViewsSent = remoteViewsSent;
+            this.appWidgetIdQueries = appWidgetIdQueries;
+            this.medianUs = medianUs;
+            this.bytesPerPass = bytesPerPass;
+        }
+
+        void assertPerPass(long updates, long remoteViews, long idQueries) {
+            assertEquals(this + "\ndelivered updates", updates * PASSES, deliveredUpdates);
+            assertEquals(this + "\nRemoteViews sent", remoteViews * PASSES, remoteViewsSent);
+            assertEquals(this + "\ngetAppWidgetIds calls", idQueries * PASSES, appWidgetIdQueries);
+        }
+
+        void assertAllocationBelow(long maxBytes) {
+            if (bytesPerPass >= 0) {
+                assertTrue(this + "\nallocation limit " + maxBytes + " B per refresh", bytesPerPass <= maxBytes);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + TOTAL_WIDGETS + " widgets, " + deliveredUpdates + " delivered updates, "
+                + remoteViewsSent + " RemoteViews, " + appWidgetIdQueries + " getAppWidgetIds calls in "
+                + PASSES + " refreshes; median " + medianUs + " us, " + bytesPerPass + " B per refresh";
+        }
+    }
+}
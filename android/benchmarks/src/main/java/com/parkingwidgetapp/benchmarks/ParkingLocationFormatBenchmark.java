@@ -0,0 +1,99 @@
+package com.parkingwidgetapp.benchmarks;
+
+import com.parkingwidgetapp.ParkingLocationFormat;
+import com.parkingwidgetapp.ParkingRecord;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of the saved location string for editing and floor-number validation on save,
+ * compared with decoding the typed ParkingRecord stored next to it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParkingLocationFormatBenchmark {
+
+    // Inputs that actually occur: the saved location, the floor as typed and the area of one save.
+    // One axis instead of location x floor, most of whose combinations can't happen
+    @Param({"basement", "decimalWithArea", "longArea", "outOfRange", "incomplete"})
+    public String inputCase;
+
+    private String location;
+    private String floorNumber;
+    private String area;
+    private String encodedRecord;
+
+    @Setup
+    public void setUp() {
+        switch (inputCase) {
+            case "basement":
+                set("지하 2층", "2", "");
+                break;
+            case "decimalWithArea":
+                set("지상 12.5층 B-12", "12.5", "B-12");
+                break;
+            case "longArea":
+                set("지하 3층 동문 엘리베이터 앞 기둥 C 7", "3", "동문 엘리베이터 앞 기둥 C 7");
+                break;
+            case "outOfRange":
+                // Rejected on save, only parsing and validation see it
+                set("지하 120층", "120", "");
+                break;
+            case "incomplete":
+                // Decimal point typed, digit not yet
+                set("지하 3.층", "3.", "");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown input case: " + inputCase);
+        }
+        ParkingRecord record = ParkingRecord.fromLegacy(location, 1741150800000L, 1);
+        encodedRecord = record != null ? record.encode() : "";
+    }
+
+    private void set(String location, String floorNumber, String area) {
+        this.location = location;
+        this.floorNumber = floorNumber;
+        this.area = area;
+    }
+
+    @Benchmark
+    public String[] parseLocation() {
+        return ParkingLocationFormat.parse(location);
+    }
+
+    @Benchmark
+    public ParkingRecord decodeRecord() {
+        return ParkingRecord.decode(encodedRecord);
+    }
+
+    @Benchmark
+    public ParkingRecord migrateLegacyLocation() {
+        return ParkingRecord.fromLegacy(location, 1741150800000L, 1);
+    }
+
+    @Benchmark
+    public int validateFloorNumber() {
+        return ParkingLocationFormat.validateFloorNumber(floorNumber);
+    }
+
+    @Benchmark
+    public String combineLocation() {
+        return ParkingLocationFormat.combine(true, floorNumber, area);
+    }
+}
@@ -0,0 +1,70 @@
+package com.parkingwidgetapp.benchmarks;
+
+import com.parkingwidgetapp.RelativeTimeFormatter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the saved-time label shown on every widget render.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RelativeTimeFormatterBenchmark {
+
+    private static final long HOUR_MS = 60L * 60 * 1000;
+
+    private RelativeTimeFormatter formatter;
+    private StringBuilder buffer;
+    private long now;
+    private long today;
+    private long yesterday;
+    private long lastWeek;
+
+    @Setup
+    public void setUp() {
+        formatter = new RelativeTimeFormatter(null);
+        buffer = new StringBuilder(32);
+        now = System.currentTimeMillis();
+        today = now - 60 * 1000;
+        yesterday = now - 24 * HOUR_MS;
+        lastWeek = now - 7 * 24 * HOUR_MS;
+    }
+
+    @Benchmark
+    public String formatToday() {
+        return formatter.format(today, now);
+    }
+
+    @Benchmark
+    public String formatYesterday() {
+        return formatter.format(yesterday, now);
+    }
+
+    @Benchmark
+    public String formatOlderDate() {
+        return formatter.format(lastWeek, now);
+    }
+
+    // Appending into a caller buffer should not allocate at all
+    @Benchmark
+    public StringBuilder appendOlderDate() {
+        buffer.setLength(0);
+        formatter.appendTo(lastWeek, now, buffer);
+        return buffer;
+    }
+}
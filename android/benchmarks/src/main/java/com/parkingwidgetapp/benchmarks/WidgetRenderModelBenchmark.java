@@ -0,0 +1,59 @@
+package com.parkingwidgetapp.benchmarks;
+
+import com.parkingwidgetapp.ParkingState;
+import com.parkingwidgetapp.WidgetRenderModel;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the render model ParkingWidgetUtil.updateWidget needs, and the digest
+ * comparison that decides whether a widget is skipped.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WidgetRenderModelBenchmark {
+
+    // Any id works, the model only compares it
+    private static final int LAYOUT_ID = 0x7f0c0001;
+
+    private ParkingState savedState;
+    private ParkingState emptyState;
+    private WidgetRenderModel previous;
+
+    @Setup
+    public void setUp() {
+        savedState = new ParkingState("지하 2층 B-12", System.currentTimeMillis() - 30 * 60 * 1000);
+        emptyState = ParkingState.EMPTY;
+        previous = WidgetRenderModel.create(LAYOUT_ID, savedState);
+    }
+
+    @Benchmark
+    public WidgetRenderModel createWithLocation() {
+        return WidgetRenderModel.create(LAYOUT_ID, savedState);
+    }
+
+    @Benchmark
+    public WidgetRenderModel createEmpty() {
+        return WidgetRenderModel.create(LAYOUT_ID, emptyState);
+    }
+
+    @Benchmark
+    public boolean createAndCompareDigest() {
+        return WidgetRenderModel.create(LAYOUT_ID, savedState).equals(previous);
+    }
+}
@@ -18,20 +18,66 @@ import {
 } from 'react-native';
 import AsyncStorage from '@react-native-async-storage/async-storage';
 import { Colors } from '../constants/colors';
-
-const { ParkingWidgetModule } = NativeModules;
+import NativeParkingWidget, {
+  type ParkingSnapshot,
+  type ParkingSuggestion,
+} from '../specs/NativeParkingWidget';
+
+// TurboModule on the new architecture, otherwise the legacy bridge module
+const ParkingWidgetModule =
+  NativeParkingWidget ?? NativeModules.ParkingWidgetModule;
+
+// Typed fields of the saved location, provided by the native module
+type SavedRecord = {
+  underground: boolean;
+  floorNumber: string;
+  area: string;
+};
+
+const toSavedRecord = (data: ParkingSnapshot): SavedRecord | undefined =>
+  data.floorNumber !== undefined
+    ? {
+        underground: data.underground === true,
+        floorNumber: data.floorNumber,
+        area: data.area ?? '',
+      }
+    : undefined;
+
+// Synchronous read from the native cache, undefined if it isn't warm or the module can't provide it
+const readSnapshot = (): ParkingSnapshot | undefined => {
+  try {
+    return ParkingWidgetModule?.getSnapshot?.() ?? undefined;
+  } catch (err) {
+    console.log('Native snapshot not available:', err);
+    return undefined;
+  }
+};
+
+// Native input rules when available, so the app and the widget dialog accept the same input
+const formatFloorInput = (text: string): string =>
+  ParkingWidgetModule?.formatFloorInput?.(text) ?? text;
+const formatAreaInput = (text: string): string =>
+  ParkingWidgetModule?.formatAreaInput?.(text) ?? text.slice(0, 30);
 
 export default function ParkingInputScreen() {
+  // Rendered on the first frame, without waiting for storage
+  const [initialSnapshot] = useState(readSnapshot);
   const [currentSavedLocation, setCurrentSavedLocation] = useState<
     string | undefined
-  >(undefined);
+  >(initialSnapshot?.location || undefined);
+  const [savedRecord, setSavedRecord] = useState<SavedRecord | undefined>(
+    initialSnapshot ? toSavedRecord(initialSnapshot) : undefined,
+  );
   const [floorType, setFloorType] = useState<'지하' | '지상'>('지하');
   const [floorNumber, setFloorNumber] = useState<string>('');
   const [areaSection, setAreaSection] = useState<string>('');
   const [isEditingMode, setIsEditingMode] = useState<boolean>(false);
   const [showWidgetGuide, setShowWidgetGuide] = useState<boolean>(false);
+  const [suggestions, setSuggestions] = useState<ParkingSuggestion[]>([]);
 
   const scrollViewRef = useRef<ScrollView>(null);
+  // Version of the state on screen, older snapshots arriving late are ignored
+  const shownVersionRef = useRef<number>(initialSnapshot?.version ?? 0);
 
   const isSaveEnabled = floorType && floorNumber.trim();
 
@@ -42,7 +88,10 @@ export default function ParkingInputScreen() {
   };
 
   useEffect(() => {
-    loadSavedLocation();
+    if (!initialSnapshot) {
+      loadSavedLocation();
+    }
+    loadSuggestions();
   }, []);
 
   // Add AppState listener to reload data when app comes back into focus
@@ -64,13 +113,19 @@ export default function ParkingInputScreen() {
     };
   }, []);
 
-  // Add listener for parking data changes from native side
+  // Native emits the committed state once per change, no need to read storage again
   useEffect(() => {
     const eventListener = DeviceEventEmitter.addListener(
       'parkingDataChanged',
-      () => {
+      (data?: ParkingSnapshot) => {
         console.log('Received parkingDataChanged event from native');
-        loadSavedLocation();
+        if (data) {
+          applySnapshot(data);
+        } else {
+          loadSavedLocation();
+        }
+        // A save changes the ranking
+        loadSuggestions();
       },
     );
 
@@ -79,40 +134,56 @@ export default function ParkingInputScreen() {
     };
   }, []);
 
-  const loadSavedLocation = async () => {
+  const applySnapshot = (data: ParkingSnapshot) => {
+    const version = data.version ?? 0;
+    if (version < shownVersionRef.current) {
+      console.log('Ignoring stale parking snapshot, version:', version);
+      return;
+    }
+    shownVersionRef.current = version;
+    setCurrentSavedLocation(data.location || undefined);
+    setSavedRecord(toSavedRecord(data));
+  };
+
+  const loadSuggestions = async () => {
+    if (!ParkingWidgetModule?.getSuggestions) {
+      return;
+    }
     try {
-      // First try AsyncStorage
-      const savedData = await AsyncStorage.getItem('parkingLocation');
-      setCurrentSavedLocation(savedData || undefined);
+      setSuggestions(await ParkingWidgetModule.getSuggestions());
+    } catch (err) {
+      console.log('Suggestions not available:', err);
+    }
+  };
+
+  // Fills the inputs, saving is still up to the user
+  const applySuggestion = (suggestion: ParkingSuggestion) => {
+    setFloorType(suggestion.underground ? '지하' : '지상');
+    setFloorNumber(suggestion.floorNumber);
+    setAreaSection(suggestion.area);
+  };
+
+  const loadSavedLocation = async () => {
+    const snapshot = readSnapshot();
+    if (snapshot) {
+      applySnapshot(snapshot);
+      return;
+    }
 
-      // Also try to get data from native module to ensure consistency
-      if (
-        ParkingWidgetModule &&
-        ParkingWidgetModule.getCurrentParkingLocation
-      ) {
+    try {
+      // Native writes AsyncStorage itself, reading it back here and writing it again
+      // could overwrite a newer save from the widget dialog
+      if (ParkingWidgetModule?.getCurrentParkingLocation) {
         try {
-          const nativeData =
-            await ParkingWidgetModule.getCurrentParkingLocation();
-          if (nativeData.location && nativeData.location !== savedData) {
-            // Native data is different from AsyncStorage, use native data
-            console.log(
-              'Data mismatch detected, using native data:',
-              nativeData.location,
-            );
-            setCurrentSavedLocation(nativeData.location);
-            // Update AsyncStorage to match native data
-            await AsyncStorage.setItem('parkingLocation', nativeData.location);
-            if (nativeData.timestamp) {
-              await AsyncStorage.setItem(
-                'parkingLocationTimestamp',
-                String(nativeData.timestamp),
-              );
-            }
-          }
+          applySnapshot(await ParkingWidgetModule.getCurrentParkingLocation());
+          return;
         } catch (nativeError) {
           console.log('Native method not available or failed:', nativeError);
         }
       }
+
+      const savedData = await AsyncStorage.getItem('parkingLocation');
+      setCurrentSavedLocation(savedData || undefined);
     } catch (err) {
       console.error('저장된 위치 로드 오류:', err);
       setCurrentSavedLocation(undefined);
@@ -120,7 +191,13 @@ export default function ParkingInputScreen() {
   };
 
   const editCurrentLocation = () => {
-    if (currentSavedLocation) {
+    if (currentSavedLocation && savedRecord) {
+      // Typed fields from native, no need to split the string
+      setFloorType(savedRecord.underground ? '지하' : '지상');
+      setFloorNumber(savedRecord.floorNumber);
+      setAreaSection(savedRecord.area);
+      setIsEditingMode(true);
+    } else if (currentSavedLocation) {
       const parts = currentSavedLocation.split(' ');
       if (parts.length >= 2) {
         const floorTypeFromSaved = parts[0] as '지하' | '지상';
@@ -147,19 +224,21 @@ export default function ParkingInputScreen() {
         style: 'destructive',
         onPress: async () => {
           try {
-            await AsyncStorage.removeItem('parkingLocation');
-            await AsyncStorage.removeItem('parkingLocationTimestamp');
-            setCurrentSavedLocation(undefined);
-
-            // Update Android widgets
-            try {
-              if (ParkingWidgetModule) {
-                await ParkingWidgetModule.updateWidgets();
-                console.log('위젯이 업데이트되었습니다.');
-              }
-            } catch (widgetError) {
-              console.error('위젯 업데이트 오류:', widgetError);
+            if (ParkingWidgetModule?.clearParkingLocation) {
+              // One native call, widgets are refreshed once it is committed
+              const version = await ParkingWidgetModule.clearParkingLocation();
+              shownVersionRef.current = Math.max(
+                shownVersionRef.current,
+                version,
+              );
+            } else {
+              await AsyncStorage.multiRemove([
+                'parkingLocation',
+                'parkingLocationTimestamp',
+              ]);
             }
+            setCurrentSavedLocation(undefined);
+            setSavedRecord(undefined);
 
             Alert.alert('삭제 완료', '저장된 주차 위치가 삭제되었습니다.');
           } catch (err) {
@@ -187,8 +266,8 @@ export default function ParkingInputScreen() {
     // Validate floor number range
     try {
       const floorNum = parseFloat(trimmedFloorNumber);
-      if (isNaN(floorNum) || floorNum < 0 || floorNum > 99) {
-        Alert.alert('알림', '층수는 0부터 99까지 입력 가능합니다.');
+      if (isNaN(floorNum) || floorNum < 0 || floorNum >= 100) {
+        Alert.alert('알림', '층수는 0부터 99.9까지 입력 가능합니다.');
         return;
       }
     } catch (err) {
@@ -200,22 +279,23 @@ export default function ParkingInputScreen() {
     const combinedLocation = `${floorType} ${floorNumber}층 ${areaSection}`;
 
     try {
-      await AsyncStorage.setItem('parkingLocation', combinedLocation);
-      // Save timestamp for consistency with Android
-      await AsyncStorage.setItem(
-        'parkingLocationTimestamp',
-        String(Date.now()),
-      );
-      setCurrentSavedLocation(combinedLocation);
-
-      // Update Android widgets
-      try {
-        if (ParkingWidgetModule) {
-          await ParkingWidgetModule.updateWidgets();
-          console.log('위젯이 업데이트되었습니다.');
-        }
-      } catch (widgetError) {
-        console.error('위젯 업데이트 오류:', widgetError);
+      let savedLocation = combinedLocation.trim();
+      if (ParkingWidgetModule?.saveParkingLocation) {
+        // Location and timestamp are committed together, widgets refresh once.
+        // Shows the stored form, e.g. "지하 2층" for "지하 02층"
+        const saved = await ParkingWidgetModule.saveParkingLocation(
+          combinedLocation,
+          Date.now(),
+        );
+        applySnapshot(saved);
+        savedLocation = saved.location ?? savedLocation;
+      } else {
+        await AsyncStorage.multiSet([
+          ['parkingLocation', combinedLocation],
+          ['parkingLocationTimestamp', String(Date.now())],
+        ]);
+        setCurrentSavedLocation(savedLocation);
+        setSavedRecord(undefined);
       }
 
       // Reset editing mode after successful save
@@ -223,7 +303,7 @@ export default function ParkingInputScreen() {
 
       Alert.alert(
         '저장 완료',
-        `${combinedLocation}으로 저장되었습니다.\n위젯이 업데이트되었습니다.`,
+        `${savedLocation}으로 저장되었습니다.\n위젯이 업데이트되었습니다.`,
         [
           {
             text: '취소',
@@ -444,7 +524,7 @@ export default function ParkingInputScreen() {
                 style={styles.input}
                 placeholder="예: 2"
                 value={floorNumber}
-                onChangeText={setFloorNumber}
+                onChangeText={text => setFloorNumber(formatFloorInput(text))}
                 keyboardType="decimal-pad"
                 returnKeyType="next"
                 onFocus={scrollToSaveButton}
@@ -459,13 +539,34 @@ export default function ParkingInputScreen() {
                 style={styles.input}
                 placeholder="예: A구역, 2D"
                 value={areaSection}
-                onChangeText={setAreaSection}
+                onChangeText={text => setAreaSection(formatAreaInput(text))}
                 returnKeyType="done"
                 onFocus={scrollToSaveButton}
               />
             </View>
           </View>
 
+          {suggestions.length > 0 && (
+            <ScrollView
+              horizontal
+              showsHorizontalScrollIndicator={false}
+              style={styles.suggestionContainer}
+              keyboardShouldPersistTaps="handled"
+            >
+              {suggestions.map(suggestion => (
+                <TouchableOpacity
+                  key={suggestion.location}
+                  style={styles.suggestionChip}
+                  onPress={() => applySuggestion(suggestion)}
+                >
+                  <Text style={styles.suggestionChipText}>
+                    {suggestion.location}
+                  </Text>
+                </TouchableOpacity>
+              ))}
+            </ScrollView>
+          )}
+
           <TouchableOpacity
             style={[
               styles.saveButton,
@@ -651,6 +752,22 @@ const styles = StyleSheet.create({
     gap: 12,
     marginBottom: 16,
   },
+  suggestionContainer: {
+    marginBottom: 16,
+  },
+  suggestionChip: {
+    borderWidth: 1,
+    borderColor: Colors.disabledBackground,
+    backgroundColor: Colors.lightGray,
+    borderRadius: 16,
+    paddingHorizontal: 12,
+    paddingVertical: 6,
+    marginRight: 8,
+  },
+  suggestionChipText: {
+    fontSize: 14,
+    color: Colors.darkGray,
+  },
   inputContainerSmall: {
     flex: 0.35,
   },
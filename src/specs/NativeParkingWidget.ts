@@ -0,0 +1,75 @@
+import type { TurboModule } from 'react-native';
+import { TurboModuleRegistry } from 'react-native';
+
+// Saved location of the default vehicle slot
+export type ParkingSnapshot = {
+  location: string | null;
+  timestamp: number;
+  underground?: boolean;
+  floorNumber?: string;
+  area?: string;
+  version?: number;
+};
+
+export type ParkingFloorUsage = {
+  underground: boolean;
+  floorNumber: string;
+  count: number;
+};
+
+export type ParkingAreaUsage = {
+  area: string;
+  count: number;
+};
+
+export type ParkingStatistics = {
+  saveCount: number;
+  deleteCount: number;
+  durationCount: number;
+  meanDurationMs: number;
+  medianDurationMs: number;
+  p90DurationMs: number;
+  topFloors: ParkingFloorUsage[];
+  topAreas: ParkingAreaUsage[];
+};
+
+// Past floor and area combination, ranked by how often and how recently it was saved
+export type ParkingSuggestion = {
+  underground: boolean;
+  floorNumber: string;
+  area: string;
+  location: string;
+};
+
+export interface Spec extends TurboModule {
+  // Served from the native cache or snapshot file, safe to call during render.
+  // Null if the state has to be read from storage, use getCurrentParkingLocation then
+  getSnapshot(): ParkingSnapshot | null;
+
+  // Input rules shared with the widget dialog, cheap enough to call on every keystroke
+  formatFloorInput(input: string): string;
+  formatAreaInput(input: string): string;
+
+  // Commit location and timestamp in one transaction. Save resolves with the committed,
+  // normalized state, clear with the new version
+  saveParkingLocation(
+    location: string,
+    timestamp: number,
+  ): Promise<ParkingSnapshot>;
+  clearParkingLocation(): Promise<number>;
+
+  getCurrentParkingLocation(): Promise<ParkingSnapshot>;
+  getParkingStatistics(): Promise<ParkingStatistics>;
+  // Best suggestions first, at most six
+  getSuggestions(): Promise<ParkingSuggestion[]>;
+  // { counters: { name: value }, histograms: { name: { count, mean, p50, p90, p99, max } } }
+  getMetrics(): Promise<Object>;
+  updateWidgets(): Promise<string>;
+
+  // Required for parkingDataChanged events
+  addListener(eventName: string): void;
+  removeListeners(count: number): void;
+}
+
+// Same name as the legacy bridge module, which is used when this is unavailable
+export default TurboModuleRegistry.get<Spec>('ParkingWidgetModule');